@@ -28,9 +28,12 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
 
 import com.github.xizzhu.simpletooltip.ToolTip;
+import com.github.xizzhu.simpletooltip.ToolTipManager;
 import com.github.xizzhu.simpletooltip.ToolTipView;
 
 public class MainActivity extends AppCompatActivity {
+    private final ToolTipManager toolTipManager = new ToolTipManager();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -105,27 +108,18 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void showToolTipView(final View anchorView, int gravity, CharSequence text, int backgroundColor, long delay) {
-        if (anchorView.getTag() != null) {
-            ((ToolTipView) anchorView.getTag()).remove();
-            anchorView.setTag(null);
+        if (toolTipManager.getToolTipView(anchorView) != null) {
+            toolTipManager.dismiss(anchorView);
             return;
         }
 
         ToolTip toolTip = createToolTip(text, backgroundColor);
         ToolTipView toolTipView = createToolTipView(toolTip, anchorView, gravity);
         if (delay > 0L) {
-            toolTipView.showDelayed(delay);
+            toolTipManager.showDelayed(toolTipView, delay);
         } else {
-            toolTipView.show();
+            toolTipManager.show(toolTipView);
         }
-        anchorView.setTag(toolTipView);
-
-        toolTipView.setOnToolTipClickedListener(new ToolTipView.OnToolTipClickedListener() {
-            @Override
-            public void onToolTipClicked(ToolTipView toolTipView) {
-                anchorView.setTag(null);
-            }
-        });
     }
 
     private ToolTip createToolTip(CharSequence text, int backgroundColor) {
@@ -148,6 +142,7 @@ public class MainActivity extends AppCompatActivity {
                 .withAnchor(anchorView)
                 .withToolTip(toolTip)
                 .withGravity(gravity)
+                .withLifecycleBinding(true)
                 .build();
     }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures placing a tool tip around anchors spread over the screen, for each gravity and screen
+ * size. Run it with "./gradlew :benchmark:jmh", the allocation rate is reported by the GC profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToolTipPlacementBenchmark {
+    private static final int ANCHORS_PER_SIDE = 4;
+    private static final int ANCHOR_SIZE = 144;
+    private static final int ARROW_WIDTH = 60;
+    private static final int ARROW_HEIGHT = 30;
+
+    @Param({"TOP", "BOTTOM", "LEFT", "RIGHT", "AUTO"})
+    public String gravity;
+
+    @Param({"720x1280", "1080x1920", "1440x3040", "2048x1536"})
+    public String screen;
+
+    @Param({"240x96", "900x360"})
+    public String body;
+
+    private final ToolTipPlacement placement = new ToolTipPlacement();
+
+    private int gravityValue;
+    private int screenWidth;
+    private int screenHeight;
+    private int bodyWidth;
+    private int bodyHeight;
+
+    // left and top of the anchors, in a grid covering the screen
+    private int[] anchors;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        gravityValue = parseGravity(gravity);
+
+        final int[] screenSize = parseSize(screen);
+        screenWidth = screenSize[0];
+        screenHeight = screenSize[1];
+
+        final int[] bodySize = parseSize(body);
+        bodyWidth = bodySize[0];
+        bodyHeight = bodySize[1];
+
+        anchors = new int[ANCHORS_PER_SIDE * ANCHORS_PER_SIDE * 2];
+        final int stepX = (screenWidth - ANCHOR_SIZE) / (ANCHORS_PER_SIDE - 1);
+        final int stepY = (screenHeight - ANCHOR_SIZE) / (ANCHORS_PER_SIDE - 1);
+        for (int i = 0; i < ANCHORS_PER_SIDE; ++i) {
+            for (int j = 0; j < ANCHORS_PER_SIDE; ++j) {
+                final int index = (i * ANCHORS_PER_SIDE + j) * 2;
+                anchors[index] = j * stepX;
+                anchors[index + 1] = i * stepY;
+            }
+        }
+        placement.setBounds(0, 0, screenWidth, screenHeight);
+    }
+
+    /**
+     * Places with the instance shared by all tool tip views, as ToolTipView does.
+     */
+    @Benchmark
+    public void placeShared(Blackhole blackhole) {
+        place(placement, blackhole);
+    }
+
+    /**
+     * Places with a new instance each time, as the baseline for the shared one. The instance is
+     * returned, so that escape analysis can't remove the allocation.
+     */
+    @Benchmark
+    public ToolTipPlacement placeNewInstance(Blackhole blackhole) {
+        final ToolTipPlacement placement = new ToolTipPlacement();
+        placement.setBounds(0, 0, screenWidth, screenHeight);
+        place(placement, blackhole);
+        return placement;
+    }
+
+    /**
+     * Picks the side of the anchor, as done for Gravity.NO_GRAVITY before showing.
+     */
+    @Benchmark
+    public int resolveGravity() {
+        final int left = anchors[next];
+        final int top = anchors[next + 1];
+        next = (next + 2) % anchors.length;
+
+        placement.setAnchor(left, top, left + ANCHOR_SIZE, top + ANCHOR_SIZE);
+        return placement.resolveGravity(bodyWidth, bodyHeight, ARROW_WIDTH, ARROW_HEIGHT);
+    }
+
+    private void place(ToolTipPlacement placement, Blackhole blackhole) {
+        final int left = anchors[next];
+        final int top = anchors[next + 1];
+        next = (next + 2) % anchors.length;
+
+        placement.setAnchor(left, top, left + ANCHOR_SIZE, top + ANCHOR_SIZE);
+        placement.place(gravityValue, bodyWidth, bodyHeight, ARROW_WIDTH, ARROW_HEIGHT);
+        blackhole.consume(placement.x);
+        blackhole.consume(placement.y);
+        blackhole.consume(placement.maxBodyWidth);
+        blackhole.consume(placement.arrowCenter);
+    }
+
+    private static int parseGravity(String gravity) {
+        switch (gravity) {
+            case "TOP":
+                return ToolTipPlacement.GRAVITY_TOP;
+            case "BOTTOM":
+                return ToolTipPlacement.GRAVITY_BOTTOM;
+            case "LEFT":
+                return ToolTipPlacement.GRAVITY_LEFT;
+            case "RIGHT":
+                return ToolTipPlacement.GRAVITY_RIGHT;
+            case "AUTO":
+                return ToolTipPlacement.GRAVITY_AUTO;
+            default:
+                throw new IllegalArgumentException("Unsupported gravity - " + gravity);
+        }
+    }
+
+    private static int[] parseSize(String size) {
+        final int separator = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, separator)),
+                Integer.parseInt(size.substring(separator + 1))};
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Moves tool tip views along with their anchors. There is one tracker for each window, kept as a tag
+ * of its root view, and it registers a single pre-draw listener for all tool tip views anchored in
+ * the window. So the anchors are checked at most once per frame, and only when the window draws.
+ */
+@UiThread
+final class AnchorTracker implements ViewTreeObserver.OnPreDrawListener {
+    private final View rootView;
+    private final ArrayList<ToolTipView> toolTipViews = new ArrayList<>();
+
+    private ViewTreeObserver viewTreeObserver;
+
+    private AnchorTracker(@NonNull View rootView) {
+        this.rootView = rootView;
+    }
+
+    /**
+     * Starts tracking the anchor of the given tool tip view, and returns the tracker used.
+     */
+    @NonNull
+    static AnchorTracker track(@NonNull ToolTipView toolTipView) {
+        final View rootView = toolTipView.getAnchorView().getRootView();
+        AnchorTracker tracker = (AnchorTracker) rootView.getTag(R.id.simple_tool_tip_anchor_tracker);
+        if (tracker == null) {
+            tracker = new AnchorTracker(rootView);
+            rootView.setTag(R.id.simple_tool_tip_anchor_tracker, tracker);
+        }
+        tracker.add(toolTipView);
+        return tracker;
+    }
+
+    private void add(@NonNull ToolTipView toolTipView) {
+        if (toolTipViews.contains(toolTipView)) {
+            return;
+        }
+        toolTipViews.add(toolTipView);
+
+        if (viewTreeObserver == null || !viewTreeObserver.isAlive()) {
+            viewTreeObserver = rootView.getViewTreeObserver();
+            viewTreeObserver.addOnPreDrawListener(this);
+        }
+    }
+
+    /**
+     * Stops tracking the anchor of the given tool tip view.
+     */
+    void untrack(@NonNull ToolTipView toolTipView) {
+        if (!toolTipViews.remove(toolTipView) || !toolTipViews.isEmpty()) {
+            return;
+        }
+
+        if (viewTreeObserver != null && viewTreeObserver.isAlive()) {
+            viewTreeObserver.removeOnPreDrawListener(this);
+        }
+        viewTreeObserver = null;
+        rootView.setTag(R.id.simple_tool_tip_anchor_tracker, null);
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        // tool tip views might stop tracking while being updated
+        for (int i = toolTipViews.size() - 1; i >= 0; --i) {
+            if (i < toolTipViews.size()) {
+                toolTipViews.get(i).onAnchorPreDraw();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+import android.os.Build;
+import android.view.Display;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * Counts the frames rendered and missed while an animation runs, from the frame times of the
+ * animation reported by {@link ToolTipAnimationClock}.
+ */
+@UiThread
+final class AnimationFrameCounter {
+    private static final float DEFAULT_REFRESH_RATE = 60.0F;
+
+    private long frameIntervalNanos;
+    private long lastFrameTimeNanos;
+    private int frames;
+    private int droppedFrames;
+
+    /**
+     * Starts counting, with the refresh rate of the display the given view is shown on.
+     */
+    void start(@NonNull View view) {
+        float refreshRate = DEFAULT_REFRESH_RATE;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            final Display display = view.getDisplay();
+            if (display != null && display.getRefreshRate() > 0.0F) {
+                refreshRate = display.getRefreshRate();
+            }
+        }
+        frameIntervalNanos = (long) (1000000000L / refreshRate);
+        lastFrameTimeNanos = 0L;
+        frames = 0;
+        droppedFrames = 0;
+    }
+
+    /**
+     * Clears the counts, e.g. when not animated.
+     */
+    void reset() {
+        frames = 0;
+        droppedFrames = 0;
+    }
+
+    int getFrames() {
+        return frames;
+    }
+
+    int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    void onFrame(long frameTimeNanos) {
+        if (lastFrameTimeNanos > 0L) {
+            final long missed = (frameTimeNanos - lastFrameTimeNanos + frameIntervalNanos / 2L)
+                    / frameIntervalNanos - 1L;
+            if (missed > 0L) {
+                droppedFrames += missed;
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        ++frames;
+    }
+}
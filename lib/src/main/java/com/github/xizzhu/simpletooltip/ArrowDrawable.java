@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+import android.view.Gravity;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * Draws the arrow of a tool tip from a path. The path and the paint are kept in a constant state,
+ * which is shared across all arrows of the same color, direction, and size.
+ */
+class ArrowDrawable extends Drawable {
+    private static final float DEFAULT_ARROW_WIDTH_DP = 20.0F;
+    private static final float DEFAULT_ARROW_HEIGHT_DP = 10.0F;
+
+    private static final int MAX_CACHED_STATES = 32;
+    private static final LruCache<StateKey, ArrowState> STATES =
+            new LruCache<StateKey, ArrowState>(MAX_CACHED_STATES);
+    private static final StateKey LOOKUP_KEY = new StateKey();
+
+    private final ArrowState state;
+
+    private ArrowDrawable(@NonNull ArrowState state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns an arrow drawable pointing to the given direction, i.e. one of Gravity.TOP,
+     * Gravity.BOTTOM, Gravity.LEFT, and Gravity.RIGHT.
+     */
+    @UiThread
+    @NonNull
+    static ArrowDrawable obtain(@ColorInt int color, int direction, int width, int height) {
+        LOOKUP_KEY.set(color, direction, width, height);
+        ArrowState state = STATES.get(LOOKUP_KEY);
+        if (state == null) {
+            final StateKey key = new StateKey();
+            key.set(color, direction, width, height);
+            state = new ArrowState(color, direction, width, height);
+            STATES.put(key, state);
+        }
+        return new ArrowDrawable(state);
+    }
+
+    /**
+     * Returns true if the given constant state is of an arrow in the given size.
+     */
+    static boolean hasSize(@NonNull ConstantState state, int width, int height) {
+        return state instanceof ArrowState
+                && ((ArrowState) state).width == width && ((ArrowState) state).height == height;
+    }
+
+    /**
+     * Returns the arrow width in pixel, i.e. the length of its base, for the given tool tip.
+     */
+    static int getArrowWidth(@NonNull Context context, @NonNull ToolTip toolTip) {
+        final int width = toolTip.getArrowWidth();
+        return width > 0 ? width
+                : Math.round(DEFAULT_ARROW_WIDTH_DP * context.getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * Returns the arrow height in pixel, i.e. the distance from its base to its tip, for the given
+     * tool tip.
+     */
+    static int getArrowHeight(@NonNull Context context, @NonNull ToolTip toolTip) {
+        final int height = toolTip.getArrowHeight();
+        return height > 0 ? height
+                : Math.round(DEFAULT_ARROW_HEIGHT_DP * context.getResources().getDisplayMetrics().density);
+    }
+
+    /**
+     * Returns the direction the arrow should point to, for a tool tip with the given gravity.
+     */
+    static int getDirection(int gravity) {
+        switch (gravity) {
+            case Gravity.LEFT:
+                return Gravity.RIGHT;
+            case Gravity.RIGHT:
+                return Gravity.LEFT;
+            case Gravity.TOP:
+                return Gravity.BOTTOM;
+            default:
+                return Gravity.TOP;
+        }
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        final Rect bounds = getBounds();
+        final int saveCount = canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+        canvas.drawPath(state.path, state.paint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return state.isVertical() ? state.width : state.height;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return state.isVertical() ? state.height : state.width;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        // the paint is shared, alpha is applied by the view instead
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        // the paint is shared, color filter is not supported
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return state;
+    }
+
+    private static class ArrowState extends ConstantState {
+        final int direction;
+        final int width;
+        final int height;
+        final Paint paint;
+        final Path path;
+
+        ArrowState(@ColorInt int color, int direction, int width, int height) {
+            this.direction = direction;
+            this.width = width;
+            this.height = height;
+
+            paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(color);
+            paint.setStyle(Paint.Style.FILL);
+
+            path = new Path();
+            switch (direction) {
+                case Gravity.TOP:
+                    path.moveTo(0.0F, height);
+                    path.lineTo(width / 2.0F, 0.0F);
+                    path.lineTo(width, height);
+                    break;
+                case Gravity.BOTTOM:
+                    path.moveTo(0.0F, 0.0F);
+                    path.lineTo(width / 2.0F, height);
+                    path.lineTo(width, 0.0F);
+                    break;
+                case Gravity.LEFT:
+                    path.moveTo(height, 0.0F);
+                    path.lineTo(0.0F, width / 2.0F);
+                    path.lineTo(height, width);
+                    break;
+                case Gravity.RIGHT:
+                    path.moveTo(0.0F, 0.0F);
+                    path.lineTo(height, width / 2.0F);
+                    path.lineTo(0.0F, width);
+                    break;
+            }
+            path.close();
+        }
+
+        boolean isVertical() {
+            return direction == Gravity.TOP || direction == Gravity.BOTTOM;
+        }
+
+        @NonNull
+        @Override
+        public Drawable newDrawable() {
+            return new ArrowDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+    }
+
+    private static class StateKey {
+        int color;
+        int direction;
+        int width;
+        int height;
+
+        void set(int color, int direction, int width, int height) {
+            this.color = color;
+            this.direction = direction;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StateKey)) {
+                return false;
+            }
+            final StateKey other = (StateKey) o;
+            return color == other.color && direction == other.direction
+                    && width == other.width && height == other.height;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = color;
+            result = 31 * result + direction;
+            result = 31 * result + width;
+            result = 31 * result + height;
+            return result;
+        }
+    }
+}
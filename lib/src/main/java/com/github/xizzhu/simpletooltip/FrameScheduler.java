@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.UiThread;
+
+/**
+ * Runs a callback once on the next frame, using Choreographer on Jelly Bean and above, or posting
+ * to the main thread after the animation frame delay on older devices. Scheduling again before the
+ * callback runs is a no-op.
+ */
+@UiThread
+final class FrameScheduler {
+    interface Callback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final Callback callback;
+    private final Runnable runnable;
+    private final FrameCallbackImpl frameCallback;
+
+    private boolean scheduled;
+
+    FrameScheduler(@NonNull Callback callback) {
+        this.callback = callback;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            runnable = null;
+            frameCallback = new FrameCallbackImpl(this);
+        } else {
+            runnable = new Runnable() {
+                @Override
+                public void run() {
+                    onFrame(System.nanoTime());
+                }
+            };
+            frameCallback = null;
+        }
+    }
+
+    boolean isScheduled() {
+        return scheduled;
+    }
+
+    void schedule() {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            frameCallback.post();
+        } else {
+            // the same pace as animators, instead of spinning the main thread when rescheduled
+            MAIN_HANDLER.postDelayed(runnable, ValueAnimator.getFrameDelay());
+        }
+    }
+
+    void cancel() {
+        if (!scheduled) {
+            return;
+        }
+        scheduled = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            frameCallback.remove();
+        } else {
+            MAIN_HANDLER.removeCallbacks(runnable);
+        }
+    }
+
+    void onFrame(long frameTimeNanos) {
+        scheduled = false;
+        callback.doFrame(frameTimeNanos);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameCallbackImpl implements Choreographer.FrameCallback {
+        private final FrameScheduler scheduler;
+
+        FrameCallbackImpl(FrameScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            scheduler.onFrame(frameTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+
+/**
+ * Shows tool tips for items of a recycler view, keyed by adapter position or stable ID instead of
+ * item views. A tool tip is shown once its item is attached and laid out, follows the item when
+ * scrolled, is removed without animation when the item is detached or recycled, and shown again
+ * without animation when the item comes back.
+ * <p/>
+ * Nothing is done on each scrolled frame, other than moving the visible tool tips. It requires the
+ * androidx.recyclerview library, and {@link #release()} should be called when the recycler view is
+ * no longer used.
+ */
+@UiThread
+public class RecyclerViewToolTips {
+    /**
+     * Finds the view in an item the tool tip anchors to.
+     */
+    public interface AnchorFinder {
+        @NonNull
+        View findAnchor(@NonNull RecyclerView.ViewHolder viewHolder);
+    }
+
+    private static final AnchorFinder ITEM_VIEW_ANCHOR_FINDER = new AnchorFinder() {
+        @NonNull
+        @Override
+        public View findAnchor(@NonNull RecyclerView.ViewHolder viewHolder) {
+            return viewHolder.itemView;
+        }
+    };
+
+    private static final class Entry {
+        final boolean byItemId;
+        final long key;
+        final ToolTip toolTip;
+        final int gravity;
+
+        @Nullable
+        ToolTipView toolTipView;
+        boolean shownOnce;
+
+        Entry(boolean byItemId, long key, ToolTip toolTip, int gravity) {
+            this.byItemId = byItemId;
+            this.key = key;
+            this.toolTip = toolTip;
+            this.gravity = gravity;
+        }
+
+        boolean matches(@NonNull RecyclerView.ViewHolder viewHolder) {
+            return byItemId ? viewHolder.getItemId() == key : viewHolder.getAdapterPosition() == key;
+        }
+    }
+
+    private final RecyclerView recyclerView;
+    private final ToolTipViewPool pool;
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private final ArrayList<RecyclerView.ViewHolder> attachedViewHolders = new ArrayList<>();
+
+    private AnchorFinder anchorFinder = ITEM_VIEW_ANCHOR_FINDER;
+    @Nullable
+    private RecyclerView.Adapter<?> observedAdapter;
+    private boolean syncScheduled;
+    private boolean showScheduled;
+    private boolean released;
+
+    private final RecyclerView.OnChildAttachStateChangeListener childAttachListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(@NonNull View view) {
+                    // attached in the middle of a layout or a scroll, before the item is laid out
+                    final RecyclerView.ViewHolder viewHolder = recyclerView.getChildViewHolder(view);
+                    if (viewHolder != null && !entries.isEmpty()) {
+                        attachedViewHolders.add(viewHolder);
+                        scheduleShow();
+                    }
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(@NonNull View view) {
+                    for (int i = attachedViewHolders.size() - 1; i >= 0; --i) {
+                        if (attachedViewHolders.get(i).itemView == view) {
+                            attachedViewHolders.remove(i);
+                        }
+                    }
+                    for (int i = 0, size = entries.size(); i < size; ++i) {
+                        final Entry entry = entries.get(i);
+                        if (entry.toolTipView != null && isInItem(entry.toolTipView.getAnchorView(), view)) {
+                            cull(entry);
+                        }
+                    }
+                }
+            };
+
+    private final RecyclerView.AdapterDataObserver dataObserver = new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+            scheduleSync();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            scheduleSync();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            scheduleSync();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            scheduleSync();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            scheduleSync();
+        }
+    };
+
+    // items are re-bound in the layout following a data change, so entries are synced after it
+    private final ViewTreeObserver.OnGlobalLayoutListener syncListener =
+            new ViewTreeObserver.OnGlobalLayoutListener() {
+                @Override
+                public void onGlobalLayout() {
+                    syncScheduled = false;
+                    //noinspection deprecation
+                    recyclerView.getViewTreeObserver().removeGlobalOnLayoutListener(this);
+                    sync();
+                }
+            };
+
+    // items attached while scrolled don't trigger a global layout, but are laid out before drawn
+    private final ViewTreeObserver.OnPreDrawListener showListener =
+            new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    showScheduled = false;
+                    recyclerView.getViewTreeObserver().removeOnPreDrawListener(this);
+                    showForAttached();
+                    return true;
+                }
+            };
+
+    private final ToolTipView.OnToolTipDismissedListener dismissedListener =
+            new ToolTipView.OnToolTipDismissedListener() {
+                @Override
+                public void onToolTipDismissed(ToolTipView toolTipView) {
+                    // culled tool tips are detached from their entries first, so this one is
+                    // dismissed by the user, e.g. clicked
+                    for (int i = entries.size() - 1; i >= 0; --i) {
+                        if (entries.get(i).toolTipView == toolTipView) {
+                            entries.remove(i);
+                        }
+                    }
+                }
+            };
+
+    /**
+     * Creates tool tips for items of the given recycler view.
+     */
+    public RecyclerViewToolTips(@NonNull RecyclerView recyclerView) {
+        if (recyclerView == null) {
+            throw new IllegalArgumentException("Missing recycler view");
+        }
+        this.recyclerView = recyclerView;
+        this.pool = new ToolTipViewPool(recyclerView.getContext());
+        recyclerView.addOnChildAttachStateChangeListener(childAttachListener);
+    }
+
+    /**
+     * Sets how to find the anchor in an item. By default, the tool tip anchors to the item view.
+     */
+    public void setAnchorFinder(@Nullable AnchorFinder anchorFinder) {
+        this.anchorFinder = anchorFinder != null ? anchorFinder : ITEM_VIEW_ANCHOR_FINDER;
+    }
+
+    /**
+     * Shows the tool tip for the item at the given adapter position, when the item is visible.
+     */
+    public void showForPosition(int position, @NonNull ToolTip toolTip, int gravity) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Unsupported position - " + position);
+        }
+        add(new Entry(false, position, toolTip, gravity));
+    }
+
+    /**
+     * Shows the tool tip for the item with the given stable ID, when the item is visible. The adapter
+     * must have stable IDs.
+     */
+    public void showForItemId(long itemId, @NonNull ToolTip toolTip, int gravity) {
+        if (itemId == RecyclerView.NO_ID) {
+            throw new IllegalArgumentException("Unsupported item ID - " + itemId);
+        }
+        add(new Entry(true, itemId, toolTip, gravity));
+    }
+
+    /**
+     * Dismisses the tool tip for the item at the given adapter position.
+     */
+    public void dismissForPosition(int position) {
+        dismiss(false, position);
+    }
+
+    /**
+     * Dismisses the tool tip for the item with the given stable ID.
+     */
+    public void dismissForItemId(long itemId) {
+        dismiss(true, itemId);
+    }
+
+    /**
+     * Dismisses all tool tips.
+     */
+    public void dismissAll() {
+        for (int i = entries.size() - 1; i >= 0; --i) {
+            remove(entries.remove(i));
+        }
+    }
+
+    /**
+     * Dismisses all tool tips without animation, and stops watching the recycler view.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+
+        for (int i = entries.size() - 1; i >= 0; --i) {
+            cull(entries.remove(i));
+        }
+        recyclerView.removeOnChildAttachStateChangeListener(childAttachListener);
+        if (observedAdapter != null) {
+            observedAdapter.unregisterAdapterDataObserver(dataObserver);
+            observedAdapter = null;
+        }
+        if (syncScheduled) {
+            syncScheduled = false;
+            //noinspection deprecation
+            recyclerView.getViewTreeObserver().removeGlobalOnLayoutListener(syncListener);
+        }
+        attachedViewHolders.clear();
+        if (showScheduled) {
+            showScheduled = false;
+            recyclerView.getViewTreeObserver().removeOnPreDrawListener(showListener);
+        }
+        pool.release();
+    }
+
+    private void add(@NonNull Entry entry) {
+        if (entry.toolTip == null) {
+            throw new IllegalArgumentException("Missing tooltip");
+        }
+        if (released) {
+            return;
+        }
+        observeAdapter();
+        dismiss(entry.byItemId, entry.key);
+        entries.add(entry);
+
+        for (int i = 0, count = recyclerView.getChildCount(); i < count; ++i) {
+            final RecyclerView.ViewHolder viewHolder =
+                    recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (viewHolder != null && entry.matches(viewHolder)) {
+                show(entry, viewHolder);
+                break;
+            }
+        }
+    }
+
+    private void dismiss(boolean byItemId, long key) {
+        for (int i = entries.size() - 1; i >= 0; --i) {
+            final Entry entry = entries.get(i);
+            if (entry.byItemId == byItemId && entry.key == key) {
+                entries.remove(i);
+                remove(entry);
+            }
+        }
+    }
+
+    private void observeAdapter() {
+        final RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (adapter == observedAdapter) {
+            return;
+        }
+        if (observedAdapter != null) {
+            observedAdapter.unregisterAdapterDataObserver(dataObserver);
+        }
+        observedAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(dataObserver);
+        }
+    }
+
+    private void scheduleSync() {
+        if (syncScheduled || entries.isEmpty()) {
+            return;
+        }
+        syncScheduled = true;
+        recyclerView.getViewTreeObserver().addOnGlobalLayoutListener(syncListener);
+    }
+
+    private void scheduleShow() {
+        if (showScheduled) {
+            return;
+        }
+        showScheduled = true;
+        recyclerView.getViewTreeObserver().addOnPreDrawListener(showListener);
+    }
+
+    /**
+     * Shows the tool tips for the items attached since the last frame, once they are laid out.
+     */
+    private void showForAttached() {
+        for (int i = 0, size = attachedViewHolders.size(); i < size; ++i) {
+            showFor(attachedViewHolders.get(i));
+        }
+        attachedViewHolders.clear();
+    }
+
+    /**
+     * Moves the tool tips to the items they belong to, after the items are changed.
+     */
+    private void sync() {
+        for (int i = 0, size = entries.size(); i < size; ++i) {
+            final Entry entry = entries.get(i);
+            if (entry.toolTipView == null) {
+                continue;
+            }
+            final View anchorView = entry.toolTipView.getAnchorView();
+            final RecyclerView.ViewHolder viewHolder = anchorView != null
+                    ? recyclerView.findContainingViewHolder(anchorView) : null;
+            if (viewHolder == null || !entry.matches(viewHolder)) {
+                cull(entry);
+            }
+        }
+        for (int i = 0, count = recyclerView.getChildCount(); i < count; ++i) {
+            final RecyclerView.ViewHolder viewHolder =
+                    recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (viewHolder != null) {
+                showFor(viewHolder);
+            }
+        }
+    }
+
+    private void showFor(@NonNull RecyclerView.ViewHolder viewHolder) {
+        for (int i = 0, size = entries.size(); i < size; ++i) {
+            final Entry entry = entries.get(i);
+            if (entry.toolTipView == null && entry.matches(viewHolder)) {
+                show(entry, viewHolder);
+            }
+        }
+    }
+
+    private void show(@NonNull Entry entry, @NonNull RecyclerView.ViewHolder viewHolder) {
+        // only animated the first time, not when the item comes back
+        final ToolTipView toolTipView = new ToolTipView.Builder(recyclerView.getContext())
+                .withAnchor(anchorFinder.findAnchor(viewHolder))
+                .withToolTip(entry.toolTip)
+                .withGravity(entry.gravity)
+                .withWindowMode(ToolTipView.WINDOW_MODE_WRAP_CONTENT)
+                .withAnchorTracking(true)
+                .withAnimationType(entry.shownOnce
+                        ? ToolTipView.ANIMATION_TYPE_NONE : ToolTipView.ANIMATION_TYPE_SCALE)
+                .withPool(pool)
+                .build();
+        toolTipView.setOnToolTipDismissedListener(dismissedListener);
+        entry.toolTipView = toolTipView;
+        entry.shownOnce = true;
+        toolTipView.show();
+    }
+
+    /**
+     * Removes the tool tip of the entry without animation, keeping the entry to show it again.
+     */
+    private static void cull(@NonNull Entry entry) {
+        final ToolTipView toolTipView = entry.toolTipView;
+        if (toolTipView != null) {
+            entry.toolTipView = null;
+            toolTipView.removeNow();
+        }
+    }
+
+    private static void remove(@NonNull Entry entry) {
+        final ToolTipView toolTipView = entry.toolTipView;
+        if (toolTipView != null) {
+            entry.toolTipView = null;
+            toolTipView.remove();
+        }
+    }
+
+    private static boolean isInItem(@Nullable View view, @NonNull View itemView) {
+        while (view != null) {
+            if (view == itemView) {
+                return true;
+            }
+            view = view.getParent() instanceof View ? (View) view.getParent() : null;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.text.StaticLayout;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A process-wide cache of measured text, shared by all tool tips rendered with
+ * {@link ToolTipView#RENDER_MODE_CANVAS}. Tool tips showing the same text with the same style skip
+ * measuring and breaking the text into lines. Only plain strings are cached, as spans may change
+ * the layout. Tool tips rendered with the default {@link ToolTipView#RENDER_MODE_VIEWS} measure and
+ * lay out their text with a TextView each time, including when narrowed for Gravity.LEFT, and don't
+ * use the cache.
+ * <p/>
+ * The cache is bounded by the estimated size of the layouts, and cleared when the configuration
+ * changes or the memory is low. It's thread safe.
+ */
+public final class TextLayoutCache {
+    private static final int MAX_SIZE_BYTES = 256 * 1024;
+
+    // used as the width of the entries keeping the desired width of the text
+    private static final int DESIRED_WIDTH = -1;
+
+    private static final LruCache<Key, Entry> CACHE = new LruCache<Key, Entry>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(Key key, Entry entry) {
+            return entry.size;
+        }
+    };
+
+    // only used on the main thread, to avoid allocating a key for each lookup
+    private static final Key LOOKUP_KEY = new Key();
+
+    private static boolean callbacksRegistered;
+
+    private TextLayoutCache() {
+    }
+
+    /**
+     * Returns the number of lookups that found a cached result.
+     */
+    public static int getHitCount() {
+        return CACHE.hitCount();
+    }
+
+    /**
+     * Returns the number of lookups that found nothing cached.
+     */
+    public static int getMissCount() {
+        return CACHE.missCount();
+    }
+
+    /**
+     * Returns the estimated size in bytes of the cached results.
+     */
+    public static int getSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Evicts all cached results.
+     */
+    public static void clear() {
+        CACHE.evictAll();
+    }
+
+    /**
+     * Clears the cache when the configuration changes or the memory is low, if not yet.
+     */
+    static void register(@NonNull Context context) {
+        synchronized (TextLayoutCache.class) {
+            if (callbacksRegistered) {
+                return;
+            }
+            callbacksRegistered = true;
+        }
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+                    clear();
+                } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                    CACHE.trimToSize(MAX_SIZE_BYTES / 2);
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                // font scale, locale, or density may be changed
+                clear();
+            }
+
+            @Override
+            public void onLowMemory() {
+                clear();
+            }
+        });
+    }
+
+    static boolean isCacheable(@NonNull CharSequence text) {
+        return text instanceof String;
+    }
+
+    /**
+     * Returns the cached desired width of the text, or -1 if not cached.
+     */
+    static int getDesiredWidth(@NonNull CharSequence text, @NonNull ToolTipStyle style) {
+        final Entry entry = get(text, style, DESIRED_WIDTH);
+        return entry != null ? entry.desiredWidth : -1;
+    }
+
+    static void putDesiredWidth(@NonNull CharSequence text, @NonNull ToolTipStyle style,
+                                int desiredWidth) {
+        CACHE.put(new Key(text, style, DESIRED_WIDTH), new Entry(text, desiredWidth, null));
+    }
+
+    /**
+     * Returns the cached layout of the text in the given width, or null if not cached.
+     */
+    @Nullable
+    static StaticLayout getLayout(@NonNull CharSequence text, @NonNull ToolTipStyle style,
+                                  int width) {
+        final Entry entry = get(text, style, width);
+        return entry != null ? entry.layout : null;
+    }
+
+    static void putLayout(@NonNull CharSequence text, @NonNull ToolTipStyle style, int width,
+                          @NonNull StaticLayout layout) {
+        CACHE.put(new Key(text, style, width), new Entry(text, -1, layout));
+    }
+
+    @Nullable
+    private static Entry get(@NonNull CharSequence text, @NonNull ToolTipStyle style, int width) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            return CACHE.get(new Key(text, style, width));
+        }
+        LOOKUP_KEY.set(text, style, width);
+        final Entry entry = CACHE.get(LOOKUP_KEY);
+        LOOKUP_KEY.set(null, null, 0);
+        return entry;
+    }
+
+    private static class Key {
+        CharSequence text;
+        ToolTipStyle style;
+        int width;
+
+        Key() {
+        }
+
+        Key(CharSequence text, ToolTipStyle style, int width) {
+            set(text, style, width);
+        }
+
+        void set(CharSequence text, ToolTipStyle style, int width) {
+            this.text = text;
+            this.style = style;
+            this.width = width;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return width == other.width && style.equals(other.style) && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + style.hashCode();
+            result = 31 * result + width;
+            return result;
+        }
+    }
+
+    private static class Entry {
+        // rough estimates of the memory used, in bytes
+        private static final int ENTRY_SIZE = 64;
+        private static final int LINE_SIZE = 48;
+
+        final int desiredWidth;
+        @Nullable
+        final StaticLayout layout;
+        final int size;
+
+        Entry(@NonNull CharSequence text, int desiredWidth, @Nullable StaticLayout layout) {
+            this.desiredWidth = desiredWidth;
+            this.layout = layout;
+            this.size = ENTRY_SIZE + text.length() * 2
+                    + (layout != null ? layout.getLineCount() * LINE_SIZE : 0);
+        }
+    }
+}
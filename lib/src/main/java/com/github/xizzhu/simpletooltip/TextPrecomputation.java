@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.os.Build;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Measures the text of a tool tip off the UI thread. Everything needed is captured on the UI thread
+ * when created, {@link #compute()} can then run on any thread, and {@link #apply()} hands the result
+ * back on the UI thread.
+ */
+abstract class TextPrecomputation {
+    @NonNull
+    static TextPrecomputation forTextView(@NonNull TextView textView) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return new ForPrecomputedText(textView);
+        }
+        return new ForTextView(textView);
+    }
+
+    @WorkerThread
+    abstract void compute();
+
+    @UiThread
+    abstract void apply();
+
+    /**
+     * Prior to P, text view can't take text measured elsewhere, so the text is only measured to
+     * warm up the process-wide text layout cache used when the text view measures it again.
+     */
+    private static class ForTextView extends TextPrecomputation {
+        private final CharSequence text;
+        private final TextPaint paint;
+
+        ForTextView(@NonNull TextView textView) {
+            this.text = textView.getText();
+            this.paint = new TextPaint(textView.getPaint());
+        }
+
+        @Override
+        void compute() {
+            Layout.getDesiredWidth(text, paint);
+        }
+
+        @Override
+        void apply() {
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.P)
+    private static class ForPrecomputedText extends TextPrecomputation {
+        private final TextView textView;
+        private final CharSequence text;
+        private final PrecomputedText.Params params;
+
+        @Nullable
+        private volatile PrecomputedText precomputedText;
+
+        ForPrecomputedText(@NonNull TextView textView) {
+            this.textView = textView;
+            this.text = textView.getText();
+            this.params = textView.getTextMetricsParams();
+        }
+
+        @Override
+        void compute() {
+            precomputedText = PrecomputedText.create(text, params);
+        }
+
+        @Override
+        void apply() {
+            final PrecomputedText precomputedText = this.precomputedText;
+            if (precomputedText == null || textView.getText() != text
+                    || !params.equals(textView.getTextMetricsParams())) {
+                return;
+            }
+            textView.setText(precomputedText);
+        }
+    }
+
+    static class ForBubble extends TextPrecomputation {
+        private final ToolTipBubbleView bubble;
+        private final CharSequence text;
+        private final ToolTipStyle style;
+        private final TextPaint paint;
+        private final Layout.Alignment alignment;
+        private final int lines;
+        private final int maxTextWidth;
+
+        private volatile int desiredTextWidth;
+        @Nullable
+        private volatile StaticLayout layout;
+
+        ForBubble(@NonNull ToolTipBubbleView bubble, @NonNull CharSequence text,
+                  @NonNull ToolTipStyle style, @NonNull TextPaint paint, @NonNull Layout.Alignment alignment, int lines,
+                  int maxTextWidth) {
+            this.bubble = bubble;
+            this.text = text;
+            this.style = style;
+            this.paint = paint;
+            this.alignment = alignment;
+            this.lines = lines;
+            this.maxTextWidth = maxTextWidth;
+        }
+
+        @Override
+        void compute() {
+            final boolean cacheable = TextLayoutCache.isCacheable(text);
+            int desiredTextWidth = cacheable ? TextLayoutCache.getDesiredWidth(text, style) : -1;
+            if (desiredTextWidth < 0) {
+                desiredTextWidth = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+                if (cacheable) {
+                    TextLayoutCache.putDesiredWidth(text, style, desiredTextWidth);
+                }
+            }
+            this.desiredTextWidth = desiredTextWidth;
+
+            final int width = Math.min(desiredTextWidth, maxTextWidth);
+            StaticLayout layout = cacheable ? TextLayoutCache.getLayout(text, style, width) : null;
+            if (layout == null) {
+                layout = ToolTipBubbleView.createLayout(text, paint, width, alignment, lines);
+                if (cacheable) {
+                    TextLayoutCache.putLayout(text, style, width, layout);
+                }
+            }
+            this.layout = layout;
+        }
+
+        @Override
+        void apply() {
+            final StaticLayout layout = this.layout;
+            if (layout != null) {
+                bubble.setPrecomputedLayout(text, desiredTextWidth, layout);
+            }
+        }
+    }
+}
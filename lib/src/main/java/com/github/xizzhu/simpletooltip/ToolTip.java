@@ -16,7 +16,6 @@
 
 package com.github.xizzhu.simpletooltip;
 
-import android.graphics.Color;
 import android.graphics.Typeface;
 import android.view.Gravity;
 
@@ -30,37 +29,14 @@ public class ToolTip {
     private final int textResourceId;
     @Nullable
     private final CharSequence text;
-    private final int textGravity;
-    private final int textColor;
-    private final float textSize;
-    private final Typeface typeface;
-    private final int typefaceStyle;
-    private final int lines;
-    private final int backgroundColor;
-    private final int leftPadding;
-    private final int rightPadding;
-    private final int topPadding;
-    private final int bottomPadding;
-    private final float radius;
-
-    private ToolTip(@StringRes int textResourceId, @Nullable CharSequence text, int textGravity,
-                    int textColor, float textSize, Typeface typeface, int typefaceStyle,
-                    int lines, int backgroundColor, int leftPadding, int rightPadding,
-                    int topPadding, int bottomPadding, float radius) {
+    @NonNull
+    private final ToolTipStyle style;
+
+    private ToolTip(@StringRes int textResourceId, @Nullable CharSequence text,
+                    @NonNull ToolTipStyle style) {
         this.textResourceId = textResourceId;
         this.text = text;
-        this.textGravity = textGravity;
-        this.textColor = textColor;
-        this.textSize = textSize;
-        this.typeface = typeface;
-        this.typefaceStyle = typefaceStyle;
-        this.lines = lines;
-        this.backgroundColor = backgroundColor;
-        this.leftPadding = leftPadding;
-        this.rightPadding = rightPadding;
-        this.topPadding = topPadding;
-        this.bottomPadding = bottomPadding;
-        this.radius = radius;
+        this.style = style;
     }
 
     @StringRes
@@ -73,55 +49,68 @@ public class ToolTip {
         return text;
     }
 
+    @NonNull
+    public ToolTipStyle getStyle() {
+        return style;
+    }
+
     public int getTextGravity() {
-        return textGravity;
+        return style.getTextGravity();
     }
 
     @ColorInt
     public int getTextColor() {
-        return textColor;
+        return style.getTextColor();
     }
 
     public float getTextSize() {
-        return textSize;
+        return style.getTextSize();
     }
 
     @NonNull
     public Typeface getTypeface() {
-        return typeface;
+        return style.getTypeface();
     }
 
     public int getTypefaceStyle() {
-        return typefaceStyle;
+        return style.getTypefaceStyle();
     }
 
     public int getLines() {
-        return lines;
+        return style.getLines();
     }
 
     @ColorInt
     public int getBackgroundColor() {
-        return backgroundColor;
+        return style.getBackgroundColor();
     }
 
     public int getLeftPadding() {
-        return leftPadding;
+        return style.getLeftPadding();
     }
 
     public int getRightPadding() {
-        return rightPadding;
+        return style.getRightPadding();
     }
 
     public int getTopPadding() {
-        return topPadding;
+        return style.getTopPadding();
     }
 
     public int getBottomPadding() {
-        return bottomPadding;
+        return style.getBottomPadding();
     }
 
     public float getCornerRadius() {
-        return radius;
+        return style.getCornerRadius();
+    }
+
+    public int getArrowWidth() {
+        return style.getArrowWidth();
+    }
+
+    public int getArrowHeight() {
+        return style.getArrowHeight();
     }
 
     /**
@@ -131,18 +120,11 @@ public class ToolTip {
         @StringRes
         private int textResourceId = 0;
         private CharSequence text;
-        private int textGravity = Gravity.NO_GRAVITY;
-        private int textColor = Color.WHITE;
-        private float textSize = 13.0F;
-        private Typeface typeface = Typeface.DEFAULT;
-        private int typefaceStyle = Typeface.NORMAL;
-        private int lines = 0;
-        private int backgroundColor = Color.BLACK;
-        private int leftPadding = 0;
-        private int rightPadding = 0;
-        private int topPadding = 0;
-        private int bottomPadding = 0;
-        private float radius = 0.0F;
+        @NonNull
+        private ToolTipStyle style = ToolTipStyle.DEFAULT;
+        // only created if the style is changed by this builder
+        @Nullable
+        private ToolTipStyle.Builder styleBuilder;
 
         /**
          * Creates a new builder.
@@ -168,11 +150,24 @@ public class ToolTip {
             return this;
         }
 
+        /**
+         * Sets the style of the tool tip, replacing the styling set before. The default value is
+         * {@link ToolTipStyle#DEFAULT}.
+         */
+        public Builder withStyle(@NonNull ToolTipStyle style) {
+            if (style == null) {
+                throw new IllegalArgumentException("Missing style");
+            }
+            this.style = style;
+            this.styleBuilder = null;
+            return this;
+        }
+
         /**
          * Sets the text gravity of the tool tip. The default value is {@link Gravity#NO_GRAVITY}.
          */
         public Builder withTextGravity(int gravity) {
-            this.textGravity = gravity;
+            styleBuilder().withTextGravity(gravity);
             return this;
         }
 
@@ -180,7 +175,7 @@ public class ToolTip {
          * Sets the text color for the tool tip. The default color is white.
          */
         public Builder withTextColor(@ColorInt int textColor) {
-            this.textColor = textColor;
+            styleBuilder().withTextColor(textColor);
             return this;
         }
 
@@ -188,7 +183,7 @@ public class ToolTip {
          * Sets the text size in pixel for the tool tip. The default size is 13.
          */
         public Builder withTextSize(float textSize) {
-            this.textSize = textSize;
+            styleBuilder().withTextSize(textSize);
             return this;
         }
 
@@ -196,9 +191,7 @@ public class ToolTip {
          * Sets the typeface for the tool tip. The default value is {@link Typeface#DEFAULT}.
          */
         public Builder withTypeface(Typeface typeface) {
-            if (typeface != null) {
-                this.typeface = typeface;
-            }
+            styleBuilder().withTypeface(typeface);
             return this;
         }
 
@@ -206,7 +199,7 @@ public class ToolTip {
          * Sets the typeface style for the tool tip. The default value is {@link Typeface#NORMAL}.
          */
         public Builder withTypefaceStyle(int style) {
-            this.typefaceStyle = style;
+            styleBuilder().withTypefaceStyle(style);
             return this;
         }
 
@@ -214,7 +207,7 @@ public class ToolTip {
          * Sets the exact lines for the tool tip. The default value is unset.
          * */
         public Builder withLines(int lines) {
-            this.lines = lines;
+            styleBuilder().withLines(lines);
             return this;
         }
 
@@ -222,7 +215,7 @@ public class ToolTip {
          * Sets the background color for the tool tip. The default color is black.
          */
         public Builder withBackgroundColor(@ColorInt int backgroundColor) {
-            this.backgroundColor = backgroundColor;
+            styleBuilder().withBackgroundColor(backgroundColor);
             return this;
         }
 
@@ -230,10 +223,7 @@ public class ToolTip {
          * Sets the padding in pixel for the tool tip. The default padding is 0.
          */
         public Builder withPadding(int leftPadding, int rightPadding, int topPadding, int bottomPadding) {
-            this.leftPadding = leftPadding;
-            this.rightPadding = rightPadding;
-            this.topPadding = topPadding;
-            this.bottomPadding = bottomPadding;
+            styleBuilder().withPadding(leftPadding, rightPadding, topPadding, bottomPadding);
             return this;
         }
 
@@ -241,17 +231,31 @@ public class ToolTip {
          * Sets the corner radius in pixel for the tool tip. The default value is 0.
          */
         public Builder withCornerRadius(float radius) {
-            this.radius = radius;
+            styleBuilder().withCornerRadius(radius);
+            return this;
+        }
+
+        /**
+         * Sets the arrow size in pixel for the tool tip. The width is the length of the arrow's base,
+         * and the height is the distance from its base to its tip. The default size is 20dp x 10dp.
+         */
+        public Builder withArrowSize(int arrowWidth, int arrowHeight) {
+            styleBuilder().withArrowSize(arrowWidth, arrowHeight);
             return this;
         }
 
+        private ToolTipStyle.Builder styleBuilder() {
+            if (styleBuilder == null) {
+                styleBuilder = new ToolTipStyle.Builder(style);
+            }
+            return styleBuilder;
+        }
+
         /**
          * Creates a tool tip.
          */
         public ToolTip build() {
-            return new ToolTip(textResourceId, text, textGravity, textColor, textSize, typeface,
-                    typefaceStyle, lines, backgroundColor, leftPadding, rightPadding, topPadding,
-                    bottomPadding, radius);
+            return new ToolTip(textResourceId, text, styleBuilder != null ? styleBuilder.build() : style);
         }
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Steps the animations of all tool tip views from a single frame callback, which is only scheduled
+ * while anything is animating. Animations started before the same frame share its frame time, so
+ * they run in lockstep. An animation can start after a delay counted from its first frame, so that
+ * tool tips shown together can enter one after another without posting anything.
+ */
+@UiThread
+final class ToolTipAnimationClock implements FrameScheduler.Callback {
+    interface Target {
+        /**
+         * Called on each frame while animating, with the elapsed fraction of the duration, from 0 to 1.
+         */
+        void onAnimationFrame(float fraction, long frameTimeNanos);
+
+        void onAnimationEnd();
+    }
+
+    /**
+     * An animation of a target. Each target keeps one, which is re-used when started again.
+     */
+    static final class Animation {
+        final Target target;
+
+        long durationNanos;
+        long delayNanos;
+        long startTimeNanos;
+        boolean running;
+
+        Animation(@NonNull Target target) {
+            this.target = target;
+        }
+    }
+
+    private static ToolTipAnimationClock instance;
+
+    private final FrameScheduler scheduler = new FrameScheduler(this);
+    private final ArrayList<Animation> animations = new ArrayList<>();
+    private final ArrayList<Animation> scratch = new ArrayList<>();
+
+    private ToolTipAnimationClock() {
+    }
+
+    @NonNull
+    static ToolTipAnimationClock getInstance() {
+        if (instance == null) {
+            instance = new ToolTipAnimationClock();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the animation on the next frame, or restarts it if it's running.
+     */
+    void start(@NonNull Animation animation, long durationMillis, long delayMillis) {
+        animation.durationNanos = Math.max(0L, durationMillis) * 1000000L;
+        animation.delayNanos = Math.max(0L, delayMillis) * 1000000L;
+        animation.startTimeNanos = -1L;
+        if (!animation.running) {
+            animation.running = true;
+            animations.add(animation);
+        }
+        scheduler.schedule();
+    }
+
+    /**
+     * Stops the animation without notifying its end.
+     */
+    void cancel(@NonNull Animation animation) {
+        if (!animation.running) {
+            return;
+        }
+        animation.running = false;
+        animations.remove(animation);
+        if (animations.isEmpty()) {
+            scheduler.cancel();
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        // targets might start or cancel animations while being updated
+        scratch.addAll(animations);
+        for (int i = 0, size = scratch.size(); i < size; ++i) {
+            final Animation animation = scratch.get(i);
+            if (!animation.running) {
+                continue;
+            }
+            if (animation.startTimeNanos < 0L) {
+                animation.startTimeNanos = frameTimeNanos + animation.delayNanos;
+            }
+            final long elapsedNanos = frameTimeNanos - animation.startTimeNanos;
+            if (elapsedNanos < 0L) {
+                continue;
+            }
+
+            final float fraction = elapsedNanos >= animation.durationNanos
+                    ? 1.0F : (float) elapsedNanos / animation.durationNanos;
+            animation.target.onAnimationFrame(fraction, frameTimeNanos);
+            if (fraction >= 1.0F && animation.running) {
+                animation.running = false;
+                animations.remove(animation);
+                animation.target.onAnimationEnd();
+            }
+        }
+        scratch.clear();
+
+        if (!animations.isEmpty()) {
+            scheduler.schedule();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Shows many tool tips at once, e.g. for a help mode. All tool tips are drawn by one view in one
+ * host, measured and placed in the same layout pass, and faded in and out together. The anchors
+ * should be in the same window.
+ * <p/>
+ * With {@link ToolTipView#HOST_POPUP_WINDOW}, touch events outside of the tool tips are consumed by
+ * the popup window. With {@link ToolTipView#HOST_OVERLAY} (default), they are passed to the window.
+ */
+@UiThread
+public class ToolTipBatch {
+    public interface OnToolTipClickedListener {
+        /**
+         * Called when the tool tip added at the given index is clicked.
+         */
+        void onToolTipClicked(ToolTipBatch batch, int index);
+    }
+
+    private final ToolTipBatchLayout layout;
+    private final ToolTipHost host;
+    private final View anchorView;
+    private final int animationType;
+    private final long animationDuration;
+    private final ToolTipAnimationClock.Animation animation = new ToolTipAnimationClock.Animation(
+            new ToolTipAnimationClock.Target() {
+                @Override
+                public void onAnimationFrame(float fraction, long frameTimeNanos) {
+                    final float value = ToolTipView.DEFAULT_INTERPOLATOR.getInterpolation(fraction);
+                    layout.setAlpha(removing ? exitStartAlpha * (1.0F - value) : value);
+                }
+
+                @Override
+                public void onAnimationEnd() {
+                    stopLayer();
+                    onRemoved();
+                }
+            });
+
+    @Nullable
+    private OnToolTipClickedListener listener;
+    private boolean removing;
+    private float exitStartAlpha;
+
+    private ToolTipBatch(ToolTipBatchLayout layout, ToolTipHost host, View anchorView,
+                         int animationType, long animationDuration) {
+        this.layout = layout;
+        this.host = host;
+        this.anchorView = anchorView;
+        this.animationType = animationType;
+        this.animationDuration = animationDuration;
+
+        layout.setOnToolTipClickedListener(new ToolTipBatchLayout.OnToolTipClickedListener() {
+            @Override
+            public void onToolTipClicked(int index) {
+                if (listener != null && !removing) {
+                    listener.onToolTipClicked(ToolTipBatch.this, index);
+                }
+            }
+        });
+    }
+
+    public void setOnToolTipClickedListener(@Nullable OnToolTipClickedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shows all tool tips. Does nothing if they are already shown.
+     */
+    public void show() {
+        if (removing) {
+            // shown again before the exit animation ends
+            removing = false;
+            cancelAnimation();
+            host.dismiss();
+        }
+        if (host.isShowing()) {
+            return;
+        }
+
+        host.showFullScreen(anchorView);
+        cancelAnimation();
+        if (shouldAnimate()) {
+            layout.setAlpha(0.0F);
+            startAnimation();
+        } else {
+            layout.setAlpha(1.0F);
+        }
+    }
+
+    /**
+     * Removes all tool tips. Calling it again while they are being removed has no effect.
+     */
+    public void remove() {
+        if (removing || !host.isShowing()) {
+            return;
+        }
+        removing = true;
+
+        // the exit animation starts from where the enter animation is cancelled, if still running
+        cancelAnimation();
+        if (!shouldAnimate()) {
+            onRemoved();
+            return;
+        }
+        exitStartAlpha = layout.getAlpha();
+        startAnimation();
+    }
+
+    public boolean isShowing() {
+        return host.isShowing() && !removing;
+    }
+
+    private void onRemoved() {
+        if (!removing) {
+            return;
+        }
+        removing = false;
+
+        cancelAnimation();
+        host.dismiss();
+    }
+
+    private boolean shouldAnimate() {
+        return animationType != ToolTipView.ANIMATION_TYPE_NONE && animationDuration > 0L
+                && !ToolTipView.areAnimatorsDisabled(layout.getContext());
+    }
+
+    /**
+     * Steps the animation from the same clock as tool tip views, so that they run in lockstep.
+     */
+    private void startAnimation() {
+        if (layout.isHardwareAccelerated()) {
+            layout.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+        final long duration = (long) (animationDuration
+                * ToolTipView.getAnimatorDurationScale(layout.getContext()));
+        ToolTipAnimationClock.getInstance().start(animation, duration, 0L);
+    }
+
+    private void cancelAnimation() {
+        ToolTipAnimationClock.getInstance().cancel(animation);
+        stopLayer();
+    }
+
+    private void stopLayer() {
+        if (layout.getLayerType() != View.LAYER_TYPE_NONE) {
+            layout.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * Used to build a tool tip batch.
+     */
+    public static class Builder {
+        private final Context context;
+        private final ArrayList<View> anchorViews = new ArrayList<>();
+        private final ArrayList<ToolTip> toolTips = new ArrayList<>();
+        private final ArrayList<Integer> gravities = new ArrayList<>();
+        private int host = ToolTipView.HOST_OVERLAY;
+        private int animationType = ToolTipView.ANIMATION_TYPE_FADE;
+        private long animationDuration = ToolTipView.DEFAULT_ANIMATION_DURATION;
+
+        public Builder(Context context) {
+            this.context = context;
+        }
+
+        /**
+         * Adds a tool tip for the anchor view with the given gravity, which supports the same values
+         * as {@link ToolTipView.Builder#withGravity(int)}.
+         */
+        public Builder add(View anchorView, ToolTip toolTip, int gravity) {
+            if (anchorView == null) {
+                throw new IllegalArgumentException("Missing anchor");
+            }
+            if (toolTip == null) {
+                throw new IllegalArgumentException("Missing tooltip");
+            }
+            anchorViews.add(anchorView);
+            toolTips.add(toolTip);
+            gravities.add(ToolTipView.resolveRelativeGravity(anchorView, gravity));
+            return this;
+        }
+
+        /**
+         * Sets where the tool tips are hosted, either {@link ToolTipView#HOST_OVERLAY} (default), or
+         * {@link ToolTipView#HOST_POPUP_WINDOW}.
+         */
+        public Builder withHost(int host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets how the tool tips are animated, either {@link ToolTipView#ANIMATION_TYPE_FADE}
+         * (default), or {@link ToolTipView#ANIMATION_TYPE_NONE}.
+         */
+        public Builder withAnimationType(int animationType) {
+            this.animationType = animationType;
+            return this;
+        }
+
+        /**
+         * Sets the duration of the animations, in milliseconds. The default value is 300.
+         */
+        public Builder withAnimationDuration(long animationDuration) {
+            this.animationDuration = animationDuration;
+            return this;
+        }
+
+        /**
+         * Creates the tool tip batch.
+         */
+        @UiThread
+        public ToolTipBatch build() {
+            if (context == null) {
+                throw new IllegalArgumentException("Missing context");
+            }
+            if (anchorViews.isEmpty()) {
+                throw new IllegalArgumentException("Missing tooltips");
+            }
+            if (host != ToolTipView.HOST_POPUP_WINDOW && host != ToolTipView.HOST_OVERLAY) {
+                throw new IllegalArgumentException("Unsupported host - " + host);
+            }
+            if (animationType != ToolTipView.ANIMATION_TYPE_FADE
+                    && animationType != ToolTipView.ANIMATION_TYPE_NONE) {
+                throw new IllegalArgumentException("Unsupported animation type - " + animationType);
+            }
+            if (animationDuration < 0L) {
+                throw new IllegalArgumentException("Unsupported animation duration - " + animationDuration);
+            }
+
+            final ToolTipBatchLayout layout = new ToolTipBatchLayout(context);
+            for (int i = 0, size = anchorViews.size(); i < size; ++i) {
+                layout.add(anchorViews.get(i), toolTips.get(i), gravities.get(i));
+            }
+            final ToolTipHost toolTipHost = host == ToolTipView.HOST_OVERLAY
+                    ? new ToolTipHost.Overlay(layout) : new ToolTipHost.Popup(layout);
+            toolTipHost.setSize(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+            layout.setHost(toolTipHost);
+            return new ToolTipBatch(layout, toolTipHost, anchorViews.get(0), animationType,
+                    animationDuration);
+        }
+    }
+}
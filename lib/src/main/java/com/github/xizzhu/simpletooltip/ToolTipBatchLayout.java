@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.text.TextUtils;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Lays out the bubbles of many tool tips in one view filling its host. All bubbles are measured and
+ * placed around their anchors in the same layout pass, and touch events are handled here for all of
+ * them, so the bubbles themselves are not clickable. Touch events outside of the bubbles are not
+ * consumed.
+ */
+@UiThread
+final class ToolTipBatchLayout extends ViewGroup {
+    interface OnToolTipClickedListener {
+        void onToolTipClicked(int index);
+    }
+
+    private static final class Item {
+        final View anchorView;
+        final ToolTipBubbleView bubble;
+        final int requestedGravity;
+        final int arrowWidth;
+        final int arrowHeight;
+
+        boolean placed;
+        int x;
+        int y;
+        int width;
+        int height;
+
+        Item(View anchorView, ToolTipBubbleView bubble, int requestedGravity, int arrowWidth,
+             int arrowHeight) {
+            this.anchorView = anchorView;
+            this.bubble = bubble;
+            this.requestedGravity = requestedGravity;
+            this.arrowWidth = arrowWidth;
+            this.arrowHeight = arrowHeight;
+        }
+    }
+
+    private final ArrayList<Item> items = new ArrayList<>();
+    private final ToolTipPlacement placement = new ToolTipPlacement();
+    private final Rect bounds = new Rect();
+    private final int[] location = new int[2];
+
+    private ToolTipHost host;
+    @Nullable
+    private OnToolTipClickedListener listener;
+    private int pressedIndex = -1;
+
+    ToolTipBatchLayout(Context context) {
+        super(context);
+    }
+
+    void setHost(@NonNull ToolTipHost host) {
+        this.host = host;
+    }
+
+    void setOnToolTipClickedListener(@Nullable OnToolTipClickedListener listener) {
+        this.listener = listener;
+    }
+
+    void add(@NonNull View anchorView, @NonNull ToolTip toolTip, int gravity) {
+        final Context context = getContext();
+        final CharSequence txt = TextUtils.isEmpty(toolTip.getText())
+                ? context.getString(toolTip.getTextResourceId()) : toolTip.getText();
+        final ToolTipBubbleView bubble = new ToolTipBubbleView(context);
+        bubble.bind(toolTip, txt, gravity == Gravity.NO_GRAVITY ? Gravity.BOTTOM : gravity);
+        addView(bubble);
+
+        items.add(new Item(anchorView, bubble, gravity, ArrowDrawable.getArrowWidth(context, toolTip),
+                ArrowDrawable.getArrowHeight(context, toolTip)));
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec),
+                MeasureSpec.getSize(heightMeasureSpec));
+
+        for (int i = 0, size = items.size(); i < size; ++i) {
+            final Item item = items.get(i);
+            final View anchorView = item.anchorView;
+            // skips anchors detached from the window
+            item.placed = anchorView.getWindowToken() != null
+                    && host.getFullScreenFrame(anchorView, bounds, location);
+            if (item.placed) {
+                measureItem(item);
+            }
+        }
+    }
+
+    private void measureItem(@NonNull Item item) {
+        placement.setBounds(bounds.left, bounds.top, bounds.right, bounds.bottom);
+        placement.setAnchor(location[0], location[1], location[0] + item.anchorView.getWidth(),
+                location[1] + item.anchorView.getHeight());
+
+        final ToolTipBubbleView bubble = item.bubble;
+        int gravity = item.requestedGravity;
+        if (gravity == Gravity.NO_GRAVITY) {
+            // picked from the body alone, so the bubble is only measured once, for its gravity
+            bubble.measureBody(bounds.width());
+            gravity = placement.resolveGravity(bubble.getBodyWidth(), bubble.getBodyHeight(),
+                    item.arrowWidth, item.arrowHeight);
+        }
+        bubble.setGravityForMeasure(gravity);
+
+        final int maxWidth;
+        if (gravity == Gravity.LEFT) {
+            maxWidth = location[0] - bounds.left;
+        } else if (gravity == Gravity.RIGHT) {
+            maxWidth = bounds.right - location[0] - item.anchorView.getWidth();
+        } else {
+            maxWidth = bounds.width();
+        }
+        bubble.measure(MeasureSpec.makeMeasureSpec(Math.max(0, maxWidth), MeasureSpec.AT_MOST),
+                MeasureSpec.makeMeasureSpec(bounds.height(), MeasureSpec.AT_MOST));
+
+        placement.place(gravity, bubble.getBodyWidth(), bubble.getBodyHeight(), item.arrowWidth,
+                item.arrowHeight);
+        item.x = placement.x;
+        item.y = placement.y;
+        item.width = placement.width;
+        item.height = placement.height;
+        bubble.setArrowCenter(placement.arrowCenter);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        for (int i = 0, size = items.size(); i < size; ++i) {
+            final Item item = items.get(i);
+            if (item.placed) {
+                item.bubble.layout(item.x, item.y, item.x + item.width, item.y + item.height);
+            } else {
+                item.bubble.layout(0, 0, 0, 0);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                pressedIndex = findItemAt((int) event.getX(), (int) event.getY());
+                return pressedIndex >= 0;
+            case MotionEvent.ACTION_UP:
+                if (pressedIndex >= 0 && pressedIndex == findItemAt((int) event.getX(), (int) event.getY())) {
+                    playSoundEffect(SoundEffectConstants.CLICK);
+                    if (listener != null) {
+                        listener.onToolTipClicked(pressedIndex);
+                    }
+                }
+                pressedIndex = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                pressedIndex = -1;
+                return true;
+            default:
+                return pressedIndex >= 0;
+        }
+    }
+
+    // the last added tool tip is drawn on top, so it's checked first
+    private int findItemAt(int x, int y) {
+        for (int i = items.size() - 1; i >= 0; --i) {
+            final Item item = items.get(i);
+            if (item.placed && x >= item.x && x < item.x + item.width
+                    && y >= item.y && y < item.y + item.height) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
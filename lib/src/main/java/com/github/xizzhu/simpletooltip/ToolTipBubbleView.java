@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.Gravity;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * A single view that draws the background, the arrow, and the text of a tool tip directly onto
+ * the canvas, instead of using a hierarchy of a container, a text view, and an image view.
+ */
+class ToolTipBubbleView extends View {
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint backgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF bodyRect = new RectF();
+    private final Path arrowPath = new Path();
+
+    private CharSequence text = "";
+    private ToolTipStyle style = ToolTipStyle.DEFAULT;
+    private boolean cacheable;
+    private int gravity = Gravity.BOTTOM;
+    private int textGravity = Gravity.NO_GRAVITY;
+    private int lines;
+    private float radius;
+    private int leftPadding;
+    private int rightPadding;
+    private int topPadding;
+    private int bottomPadding;
+    private int arrowWidth;
+    private int arrowHeight;
+
+    private int maxBodyWidth = Integer.MAX_VALUE;
+    private int arrowCenter = -1;
+
+    private int desiredTextWidth = -1;
+    private StaticLayout layout;
+    private int layoutWidth = -1;
+    private int bodyWidth;
+    private int bodyHeight;
+    private int textHeight;
+
+    ToolTipBubbleView(Context context) {
+        super(context);
+    }
+
+    /**
+     * Binds the bubble to the given tool tip and text, resetting any state left from a previous use.
+     */
+    void bind(@NonNull ToolTip toolTip, @NonNull CharSequence text, int gravity) {
+        this.text = text;
+        this.style = toolTip.getStyle();
+        this.cacheable = TextLayoutCache.isCacheable(text);
+        if (cacheable) {
+            TextLayoutCache.register(getContext());
+        }
+        this.gravity = gravity;
+        this.textGravity = toolTip.getTextGravity();
+        this.lines = toolTip.getLines();
+        this.radius = toolTip.getCornerRadius();
+        this.leftPadding = toolTip.getLeftPadding();
+        this.rightPadding = toolTip.getRightPadding();
+        this.topPadding = toolTip.getTopPadding();
+        this.bottomPadding = toolTip.getBottomPadding();
+        this.arrowWidth = ArrowDrawable.getArrowWidth(getContext(), toolTip);
+        this.arrowHeight = ArrowDrawable.getArrowHeight(getContext(), toolTip);
+        this.maxBodyWidth = Integer.MAX_VALUE;
+        this.arrowCenter = -1;
+
+        applyStyle(textPaint, style);
+        backgroundPaint.setColor(toolTip.getBackgroundColor());
+
+        desiredTextWidth = -1;
+        layout = null;
+        layoutWidth = -1;
+        setContentDescription(text);
+        requestLayout();
+        invalidate();
+    }
+
+    private static void applyStyle(@NonNull TextPaint paint, @NonNull ToolTipStyle style) {
+        paint.setColor(style.getTextColor());
+        paint.setTextSize(style.getTextSize());
+
+        // mirrors TextView.setTypeface(Typeface, int), with the typeface resolved once per style
+        paint.setTypeface(style.getResolvedTypeface());
+        paint.setFakeBoldText(style.isFakeBoldText());
+        paint.setTextSkewX(style.getTextSkewX());
+    }
+
+    /**
+     * Measures the text into {@link TextLayoutCache}, the same as measuring a bubble for the given
+     * text and style with the given maximum body width.
+     */
+    @UiThread
+    static void prefetchLayout(@NonNull CharSequence text, @NonNull ToolTipStyle style,
+                               int maxBodyWidth) {
+        final TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        applyStyle(paint, style);
+
+        int desiredTextWidth = TextLayoutCache.getDesiredWidth(text, style);
+        if (desiredTextWidth < 0) {
+            desiredTextWidth = (int) Math.ceil(Layout.getDesiredWidth(text, paint));
+            TextLayoutCache.putDesiredWidth(text, style, desiredTextWidth);
+        }
+        final int maxTextWidth = Math.max(0,
+                maxBodyWidth - style.getLeftPadding() - style.getRightPadding());
+        final int width = Math.min(desiredTextWidth, maxTextWidth);
+        if (TextLayoutCache.getLayout(text, style, width) == null) {
+            TextLayoutCache.putLayout(text, style, width, createLayout(text, paint, width,
+                    getAlignment(style.getTextGravity()), style.getLines()));
+        }
+    }
+
+    /**
+     * Changes the text, keeping the style. The caller should measure the bubble again.
+     */
+    void setText(@NonNull CharSequence text) {
+        if (TextUtils.equals(this.text, text)) {
+            return;
+        }
+        this.text = text;
+        this.cacheable = TextLayoutCache.isCacheable(text);
+        desiredTextWidth = -1;
+        layout = null;
+        layoutWidth = -1;
+        setContentDescription(text);
+        // also marks the parents, so that measuring them again doesn't skip this view
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets the gravity of the tool tip, which decides where the arrow is drawn.
+     */
+    void setGravity(int gravity) {
+        if (this.gravity != gravity) {
+            this.gravity = gravity;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    /**
+     * Sets the gravity picked by the parent while measuring, right before it measures this bubble, so
+     * that no other layout is requested.
+     */
+    void setGravityForMeasure(int gravity) {
+        if (this.gravity != gravity) {
+            this.gravity = gravity;
+            invalidate();
+        }
+    }
+
+    /**
+     * Sets the maximum width of the body, i.e. the bubble without the arrow.
+     */
+    void setMaxBodyWidth(int maxBodyWidth) {
+        // negative if the anchor is at the edge of the screen
+        final int width = Math.max(0, maxBodyWidth);
+        if (this.maxBodyWidth != width) {
+            this.maxBodyWidth = width;
+            requestLayout();
+        }
+    }
+
+    /**
+     * Sets the position of the center of the arrow, along the edge of the body it's attached to. A
+     * negative value centers the arrow.
+     */
+    void setArrowCenter(int arrowCenter) {
+        if (this.arrowCenter != arrowCenter) {
+            this.arrowCenter = arrowCenter;
+            invalidate();
+        }
+    }
+
+    int getBodyWidth() {
+        return bodyWidth;
+    }
+
+    int getBodyHeight() {
+        return bodyHeight;
+    }
+
+    /**
+     * Returns the horizontal size of the arrow as drawn for the current gravity.
+     */
+    int getArrowMeasuredWidth() {
+        return isVertical() ? arrowWidth : arrowHeight;
+    }
+
+    /**
+     * Returns the vertical size of the arrow as drawn for the current gravity.
+     */
+    int getArrowMeasuredHeight() {
+        return isVertical() ? arrowHeight : arrowWidth;
+    }
+
+    private boolean isVertical() {
+        return gravity == Gravity.TOP || gravity == Gravity.BOTTOM;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        int maxWidth = maxBodyWidth;
+        if (widthMode != MeasureSpec.UNSPECIFIED) {
+            final int available = MeasureSpec.getSize(widthMeasureSpec)
+                    - (isVertical() ? 0 : getArrowMeasuredWidth());
+            maxWidth = Math.min(maxWidth, available);
+        }
+        measureBodyInternal(maxWidth);
+
+        final int width;
+        final int height;
+        if (isVertical()) {
+            width = Math.max(bodyWidth, getArrowMeasuredWidth());
+            height = bodyHeight + getArrowMeasuredHeight();
+        } else {
+            width = bodyWidth + getArrowMeasuredWidth();
+            height = Math.max(bodyHeight, getArrowMeasuredHeight());
+        }
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    /**
+     * Measures the body for the given maximum width without measuring the view, e.g. to pick the
+     * gravity before measuring. The size is then returned by {@link #getBodyWidth()} and
+     * {@link #getBodyHeight()}.
+     */
+    void measureBody(int maxBodyWidth) {
+        measureBodyInternal(Math.min(this.maxBodyWidth, maxBodyWidth));
+    }
+
+    private void measureBodyInternal(int maxWidth) {
+        final int maxTextWidth = Math.max(0, maxWidth - leftPadding - rightPadding);
+
+        if (desiredTextWidth < 0) {
+            desiredTextWidth = cacheable ? TextLayoutCache.getDesiredWidth(text, style) : -1;
+            if (desiredTextWidth < 0) {
+                desiredTextWidth = (int) Math.ceil(Layout.getDesiredWidth(text, textPaint));
+                if (cacheable) {
+                    TextLayoutCache.putDesiredWidth(text, style, desiredTextWidth);
+                }
+            }
+        }
+        makeLayout(Math.min(desiredTextWidth, maxTextWidth));
+
+        bodyWidth = layoutWidth + leftPadding + rightPadding;
+        bodyHeight = textHeight + topPadding + bottomPadding;
+    }
+
+    private void makeLayout(int width) {
+        if (layout != null && layoutWidth == width) {
+            return;
+        }
+        layoutWidth = width;
+        layout = cacheable ? TextLayoutCache.getLayout(text, style, width) : null;
+        if (layout == null) {
+            // a layout draws with the paint it's created with, so the cached ones mustn't share the
+            // paint of this view, which is changed when it's bound again
+            final TextPaint paint = cacheable ? new TextPaint(textPaint) : textPaint;
+            layout = createLayout(text, paint, width, getAlignment(textGravity), lines);
+            if (cacheable) {
+                TextLayoutCache.putLayout(text, style, width, layout);
+            }
+        }
+        textHeight = getTextHeight(layout, lines);
+    }
+
+    /**
+     * Creates the layout of the text. It only touches its arguments, so can be called from any
+     * thread as long as the paint is not shared with the UI thread.
+     */
+    @NonNull
+    static StaticLayout createLayout(@NonNull CharSequence text, @NonNull TextPaint paint, int width,
+                                     @NonNull Layout.Alignment alignment, int lines) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            // the defaults match the ones passed to the constructor below
+            final StaticLayout.Builder builder = StaticLayout.Builder
+                    .obtain(text, 0, text.length(), paint, width)
+                    .setAlignment(alignment);
+            if (lines > 0) {
+                builder.setMaxLines(lines).setEllipsize(TextUtils.TruncateAt.END);
+            }
+            return builder.build();
+        }
+        return createLayoutBeforeM(text, paint, width, alignment, lines);
+    }
+
+    @NonNull
+    @SuppressWarnings("deprecation")
+    private static StaticLayout createLayoutBeforeM(@NonNull CharSequence text,
+                                                    @NonNull TextPaint paint, int width,
+                                                    @NonNull Layout.Alignment alignment, int lines) {
+        if (lines == 1) {
+            final CharSequence ellipsized = TextUtils.ellipsize(text, paint, width,
+                    TextUtils.TruncateAt.END);
+            return new StaticLayout(ellipsized, paint, width, alignment, 1.0F, 0.0F, true);
+        }
+        // lines beyond the limit are clipped when drawing
+        return new StaticLayout(text, paint, width, alignment, 1.0F, 0.0F, true);
+    }
+
+    private static int getTextHeight(@NonNull StaticLayout layout, int lines) {
+        if (lines > 0) {
+            // same as TextView.setLines(), the height is always the given number of lines
+            final int lineHeight = layout.getLineBottom(0) - layout.getLineTop(0);
+            return lineHeight * lines;
+        }
+        return layout.getHeight();
+    }
+
+    /**
+     * Captures the current text and style, so that the text layout can be created off the UI
+     * thread for the given maximum body width.
+     */
+    @NonNull
+    TextPrecomputation createTextPrecomputation(int maxBodyWidth) {
+        final int maxTextWidth = Math.max(0, maxBodyWidth - leftPadding - rightPadding);
+        return new TextPrecomputation.ForBubble(this, text, style, new TextPaint(textPaint),
+                getAlignment(textGravity), lines, maxTextWidth);
+    }
+
+    /**
+     * Applies the text layout created off the UI thread, if the text hasn't changed since.
+     */
+    void setPrecomputedLayout(@NonNull CharSequence text, int desiredTextWidth,
+                              @NonNull StaticLayout layout) {
+        if (this.text != text) {
+            return;
+        }
+        this.desiredTextWidth = desiredTextWidth;
+        this.layout = layout;
+        this.layoutWidth = layout.getWidth();
+        this.textHeight = getTextHeight(layout, lines);
+        requestLayout();
+    }
+
+    private static Layout.Alignment getAlignment(int textGravity) {
+        switch (textGravity & Gravity.RELATIVE_HORIZONTAL_GRAVITY_MASK) {
+            case Gravity.CENTER_HORIZONTAL:
+                return Layout.Alignment.ALIGN_CENTER;
+            case Gravity.RIGHT:
+            case Gravity.END:
+                return Layout.Alignment.ALIGN_OPPOSITE;
+            default:
+                return Layout.Alignment.ALIGN_NORMAL;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (layout == null) {
+            return;
+        }
+
+        final int width = getWidth();
+        final int height = getHeight();
+        final int arrowMeasuredWidth = getArrowMeasuredWidth();
+        final int arrowMeasuredHeight = getArrowMeasuredHeight();
+
+        final float bodyLeft = gravity == Gravity.RIGHT ? arrowMeasuredWidth : 0.0F;
+        final float bodyTop = gravity == Gravity.BOTTOM ? arrowMeasuredHeight : 0.0F;
+        bodyRect.set(bodyLeft, bodyTop, bodyLeft + bodyWidth, bodyTop + bodyHeight);
+        canvas.drawRoundRect(bodyRect, radius, radius, backgroundPaint);
+
+        final int halfArrowWidth = arrowWidth / 2;
+        arrowPath.reset();
+        if (isVertical()) {
+            final float center = clampArrowCenter(width);
+            final float baseY = gravity == Gravity.TOP ? bodyRect.bottom : bodyRect.top;
+            final float tipY = gravity == Gravity.TOP ? height : 0.0F;
+            arrowPath.moveTo(center - halfArrowWidth, baseY);
+            arrowPath.lineTo(center, tipY);
+            arrowPath.lineTo(center + halfArrowWidth, baseY);
+        } else {
+            final float center = clampArrowCenter(height);
+            final float baseX = gravity == Gravity.LEFT ? bodyRect.right : bodyRect.left;
+            final float tipX = gravity == Gravity.LEFT ? width : 0.0F;
+            arrowPath.moveTo(baseX, center - halfArrowWidth);
+            arrowPath.lineTo(tipX, center);
+            arrowPath.lineTo(baseX, center + halfArrowWidth);
+        }
+        arrowPath.close();
+        canvas.drawPath(arrowPath, backgroundPaint);
+
+        final int saveCount = canvas.save();
+        canvas.translate(bodyRect.left + leftPadding, bodyRect.top + topPadding + getTextOffset());
+        canvas.clipRect(0, 0, layoutWidth, textHeight);
+        layout.draw(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    private float clampArrowCenter(int extent) {
+        final int halfArrowWidth = arrowWidth / 2;
+        final int center = arrowCenter < 0 ? extent / 2 : arrowCenter;
+        return Math.max(halfArrowWidth, Math.min(extent - halfArrowWidth, center));
+    }
+
+    private int getTextOffset() {
+        final int space = textHeight - layout.getHeight();
+        if (space <= 0) {
+            return 0;
+        }
+        switch (textGravity & Gravity.VERTICAL_GRAVITY_MASK) {
+            case Gravity.CENTER_VERTICAL:
+                return space / 2;
+            case Gravity.BOTTOM:
+                return space;
+            default:
+                return 0;
+        }
+    }
+}
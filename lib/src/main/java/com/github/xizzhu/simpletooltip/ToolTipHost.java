@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.graphics.Rect;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.PopupWindow;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+/**
+ * Hosts the content of a tool tip view, either in its own window, or in the window of the anchor.
+ * Positions passed to the window sized to the tool tip are on screen.
+ */
+@UiThread
+abstract class ToolTipHost {
+    final View content;
+    @Nullable
+    PopupWindow.OnDismissListener dismissListener;
+
+    ToolTipHost(@NonNull View content) {
+        this.content = content;
+    }
+
+    void setOnDismissListener(@Nullable PopupWindow.OnDismissListener dismissListener) {
+        this.dismissListener = dismissListener;
+    }
+
+    abstract boolean isShowing();
+
+    /**
+     * Sets the size used when shown next, which can be ViewGroup.LayoutParams.WRAP_CONTENT or
+     * ViewGroup.LayoutParams.MATCH_PARENT.
+     */
+    abstract void setSize(int width, int height);
+
+    /**
+     * Shows the content in a window sized to it, at the given position on screen.
+     */
+    abstract void showAt(@NonNull View anchorView, int x, int y);
+
+    /**
+     * Shows the content filling the window.
+     */
+    abstract void showFullScreen(@NonNull View anchorView);
+
+    /**
+     * Moves the shown content to the given position on screen, and resizes it unless the size is -1.
+     * In a window sized to the content, it might be moved by translation instead.
+     */
+    abstract void update(int x, int y, int width, int height);
+
+    abstract void dismiss();
+
+    /**
+     * Gets the bounds of the full screen window, and the location of the anchor in it. Returns false
+     * if they can't be computed.
+     */
+    abstract boolean getFullScreenFrame(@NonNull View anchorView, @NonNull Rect outBounds,
+                                        @NonNull int[] outAnchorLocation);
+
+    /**
+     * Hosts the content in a popup window, which is a new window on top of the anchor's window.
+     */
+    static final class Popup extends ToolTipHost {
+        private final PopupWindow popupWindow;
+        private final Rect displayFrame = new Rect();
+
+        Popup(@NonNull View content) {
+            super(content);
+            popupWindow = new PopupWindow(content, ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT);
+            popupWindow.setOnDismissListener(new PopupWindow.OnDismissListener() {
+                @Override
+                public void onDismiss() {
+                    if (dismissListener != null) {
+                        dismissListener.onDismiss();
+                    }
+                }
+            });
+        }
+
+        @Override
+        boolean isShowing() {
+            return popupWindow.isShowing();
+        }
+
+        @Override
+        void setSize(int width, int height) {
+            popupWindow.setWidth(width);
+            popupWindow.setHeight(height);
+        }
+
+        @Override
+        void showAt(@NonNull View anchorView, int x, int y) {
+            popupWindow.showAtLocation(anchorView, Gravity.LEFT | Gravity.TOP, x, y);
+        }
+
+        @Override
+        void showFullScreen(@NonNull View anchorView) {
+            popupWindow.showAsDropDown(anchorView);
+        }
+
+        @Override
+        void update(int x, int y, int width, int height) {
+            popupWindow.update(x, y, width, height);
+        }
+
+        @Override
+        void dismiss() {
+            popupWindow.dismiss();
+        }
+
+        @Override
+        boolean getFullScreenFrame(@NonNull View anchorView, @NonNull Rect outBounds,
+                                   @NonNull int[] outAnchorLocation) {
+            final WindowGeometry geometry = WindowGeometry.get(anchorView);
+            outBounds.set(0, 0, geometry.getDisplayWidth(), geometry.getDisplayHeight());
+
+            // the popup window is placed below the status bar
+            geometry.getVisibleFrame(displayFrame);
+            anchorView.getLocationInWindow(outAnchorLocation);
+            outAnchorLocation[1] -= displayFrame.top;
+            return true;
+        }
+    }
+
+    /**
+     * Hosts the content in a layer added on top of the anchor's window, so that no window is created.
+     * The layer is shared by all tool tip views in the same window, and removed once empty. It doesn't
+     * handle touch events itself, so touch events outside of the content go to the window's views.
+     */
+    static final class Overlay extends ToolTipHost {
+        private final FrameLayout.LayoutParams layoutParams = new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.LEFT | Gravity.TOP);
+        private final Rect displayFrame = new Rect();
+        private final int[] location = new int[2];
+
+        @Nullable
+        private FrameLayout layer;
+
+        Overlay(@NonNull View content) {
+            super(content);
+        }
+
+        @Override
+        boolean isShowing() {
+            return layer != null;
+        }
+
+        @Override
+        void setSize(int width, int height) {
+            layoutParams.width = width;
+            layoutParams.height = height;
+            if (layer != null) {
+                content.setLayoutParams(layoutParams);
+            }
+        }
+
+        @Override
+        void showAt(@NonNull View anchorView, int x, int y) {
+            if (attach(anchorView)) {
+                setPosition(x, y);
+                content.setTranslationX(0.0F);
+                content.setTranslationY(0.0F);
+                layer.addView(content, layoutParams);
+            }
+        }
+
+        @Override
+        void showFullScreen(@NonNull View anchorView) {
+            if (attach(anchorView)) {
+                layoutParams.leftMargin = 0;
+                layoutParams.topMargin = 0;
+                layer.addView(content, layoutParams);
+            }
+        }
+
+        @Override
+        void update(int x, int y, int width, int height) {
+            if (layer == null) {
+                return;
+            }
+            if ((width < 0 || width == layoutParams.width) && (height < 0 || height == layoutParams.height)) {
+                // moves the content from where it's laid out, so no layout is needed
+                layer.getRootView().getLocationOnScreen(location);
+                content.setTranslationX(x - location[0] - layoutParams.leftMargin);
+                content.setTranslationY(y - location[1] - layoutParams.topMargin);
+                return;
+            }
+
+            setPosition(x, y);
+            content.setTranslationX(0.0F);
+            content.setTranslationY(0.0F);
+            if (width >= 0) {
+                layoutParams.width = width;
+            }
+            if (height >= 0) {
+                layoutParams.height = height;
+            }
+            content.setLayoutParams(layoutParams);
+        }
+
+        private void setPosition(int x, int y) {
+            // the layer fills the root view of the window
+            layer.getRootView().getLocationOnScreen(location);
+            layoutParams.leftMargin = x - location[0];
+            layoutParams.topMargin = y - location[1];
+        }
+
+        @Override
+        void dismiss() {
+            if (layer == null) {
+                return;
+            }
+            layer.removeView(content);
+            if (layer.getChildCount() == 0) {
+                final ViewGroup rootView = (ViewGroup) layer.getParent();
+                rootView.removeView(layer);
+                rootView.setTag(R.id.simple_tool_tip_overlay_layer, null);
+            }
+            layer = null;
+
+            if (dismissListener != null) {
+                dismissListener.onDismiss();
+            }
+        }
+
+        @Override
+        boolean getFullScreenFrame(@NonNull View anchorView, @NonNull Rect outBounds,
+                                   @NonNull int[] outAnchorLocation) {
+            // the layer fills the root view, and might not be added yet
+            final View rootView = anchorView.getRootView();
+            rootView.getLocationOnScreen(location);
+
+            // keeps the tool tip out of the system bars drawn over the window
+            WindowGeometry.get(anchorView).getVisibleFrame(displayFrame);
+            outBounds.set(displayFrame);
+            outBounds.offset(-location[0], -location[1]);
+            if (!outBounds.intersect(0, 0, rootView.getWidth(), rootView.getHeight())) {
+                return false;
+            }
+
+            anchorView.getLocationOnScreen(outAnchorLocation);
+            outAnchorLocation[0] -= location[0];
+            outAnchorLocation[1] -= location[1];
+            return true;
+        }
+
+        private boolean attach(@NonNull View anchorView) {
+            final View rootView = anchorView.getRootView();
+            if (!(rootView instanceof ViewGroup)) {
+                return false;
+            }
+
+            FrameLayout layer = (FrameLayout) rootView.getTag(R.id.simple_tool_tip_overlay_layer);
+            if (layer == null) {
+                layer = new FrameLayout(anchorView.getContext());
+                ((ViewGroup) rootView).addView(layer, new ViewGroup.LayoutParams(
+                        ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+                rootView.setTag(R.id.simple_tool_tip_overlay_layer, layer);
+            }
+            this.layer = layer;
+            return true;
+        }
+    }
+}
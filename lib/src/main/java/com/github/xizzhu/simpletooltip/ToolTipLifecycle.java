@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Watches the activities of the application, so that nothing related to tool tips outlives its
+ * activity. When an activity is destroyed, the pending delayed actions are dropped, and the tool tip
+ * views bound to its lifecycle are removed without animation and release their references.
+ */
+@UiThread
+final class ToolTipLifecycle implements Application.ActivityLifecycleCallbacks {
+    private static ToolTipLifecycle instance;
+
+    private final ArrayList<ToolTipView> bound = new ArrayList<>();
+    private final ArrayList<ToolTipView> scratch = new ArrayList<>();
+
+    private boolean registered;
+
+    private ToolTipLifecycle() {
+    }
+
+    @NonNull
+    static ToolTipLifecycle getInstance() {
+        if (instance == null) {
+            instance = new ToolTipLifecycle();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts watching the activities, if not yet.
+     */
+    void register(@NonNull Context context) {
+        if (registered) {
+            return;
+        }
+        final Context applicationContext = context.getApplicationContext();
+        if (!(applicationContext instanceof Application)) {
+            return;
+        }
+        registered = true;
+        ((Application) applicationContext).registerActivityLifecycleCallbacks(this);
+    }
+
+    /**
+     * Binds the tool tip view to the lifecycle of its activity.
+     */
+    void bind(@NonNull ToolTipView toolTipView) {
+        register(toolTipView.getContext());
+        if (!bound.contains(toolTipView)) {
+            bound.add(toolTipView);
+        }
+    }
+
+    void unbind(@NonNull ToolTipView toolTipView) {
+        bound.remove(toolTipView);
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        ToolTipScheduler.getInstance().cancelAll(activity);
+        ToolTips.onActivityDestroyed(activity);
+
+        for (int i = 0, size = bound.size(); i < size; ++i) {
+            final ToolTipView toolTipView = bound.get(i);
+            if (findActivity(toolTipView.getContext()) == activity) {
+                scratch.add(toolTipView);
+            }
+        }
+        for (int i = 0, size = scratch.size(); i < size; ++i) {
+            scratch.get(i).onActivityDestroyed();
+        }
+        scratch.clear();
+    }
+
+    @Nullable
+    static Activity findActivity(@Nullable Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) {
+                return (Activity) context;
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Manages the tool tip views of an activity. Requests to show or dismiss tool tip views are queued,
+ * and handled together on the next frame. Only one tool tip view is shown for each anchor, and at
+ * most a given number of tool tip views are visible at once, with the oldest ones dismissed first.
+ * Tool tip views dropped before shown are removed too, so that pooled ones are recycled.
+ */
+@UiThread
+public class ToolTipManager {
+    private static final int DEFAULT_MAX_VISIBLE = 3;
+
+    private final int maxVisible;
+    private long staggerDelay;
+    private final FrameScheduler scheduler = new FrameScheduler(new FrameScheduler.Callback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            flush();
+        }
+    });
+
+    // ordered by the time they are shown, oldest first
+    private final ArrayList<ToolTipView> visible = new ArrayList<>();
+    private final ArrayList<ToolTipView> pendingShows = new ArrayList<>();
+    // waiting for their delay to pass, before added to the pending shows
+    private final ArrayList<ToolTipView> delayedShows = new ArrayList<>();
+    private final ArrayList<ToolTipView> pendingDismissals = new ArrayList<>();
+
+    /**
+     * Creates a new manager that shows at most 3 tool tip views at once.
+     */
+    public ToolTipManager() {
+        this(DEFAULT_MAX_VISIBLE);
+    }
+
+    /**
+     * Creates a new manager that shows at most the given number of tool tip views at once.
+     */
+    public ToolTipManager(int maxVisible) {
+        if (maxVisible <= 0) {
+            throw new IllegalArgumentException("Unsupported max visible - " + maxVisible);
+        }
+        this.maxVisible = maxVisible;
+    }
+
+    /**
+     * Sets the delay between the enter animations of tool tip views shown on the same frame, so that
+     * they enter one after another. The default value is 0.
+     */
+    public void setStaggerDelay(long staggerDelay) {
+        if (staggerDelay < 0L) {
+            throw new IllegalArgumentException("Unsupported stagger delay - " + staggerDelay);
+        }
+        this.staggerDelay = staggerDelay;
+    }
+
+    /**
+     * Shows the tool tip view on the next frame, replacing any tool tip view shown or to be shown for
+     * the same anchor.
+     */
+    public void show(@NonNull ToolTipView toolTipView) {
+        delayedShows.remove(toolTipView);
+        pendingDismissals.remove(toolTipView);
+        if (pendingShows.contains(toolTipView) || visible.contains(toolTipView)) {
+            return;
+        }
+
+        final View anchorView = toolTipView.getAnchorView();
+        for (int i = pendingShows.size() - 1; i >= 0; --i) {
+            if (pendingShows.get(i).getAnchorView() == anchorView) {
+                // never shown, but removed so that its pooled view is recycled
+                pendingShows.remove(i).remove();
+            }
+        }
+        removeDelayedShows(anchorView);
+        pendingShows.add(toolTipView);
+        scheduler.schedule();
+    }
+
+    /**
+     * Shows the tool tip view on the first frame after the given delay, as {@link #show(ToolTipView)}.
+     * The delayed show is dropped if the tool tip view is dismissed or cancelled before, or the
+     * activity is destroyed.
+     */
+    public void showDelayed(@NonNull ToolTipView toolTipView, long milliSeconds) {
+        if (pendingShows.contains(toolTipView) || visible.contains(toolTipView)) {
+            return;
+        }
+        if (!delayedShows.contains(toolTipView)) {
+            removeDelayedShows(toolTipView.getAnchorView());
+            delayedShows.add(toolTipView);
+        }
+        toolTipView.setManager(this);
+        toolTipView.showDelayed(milliSeconds);
+    }
+
+    /**
+     * Dismisses the tool tip view on the next frame.
+     */
+    public void dismiss(@NonNull ToolTipView toolTipView) {
+        if (delayedShows.contains(toolTipView)) {
+            // removes it from the delayed shows, and recycles its pooled view
+            toolTipView.remove();
+            return;
+        }
+        if (pendingShows.remove(toolTipView)) {
+            toolTipView.remove();
+            return;
+        }
+        if (visible.contains(toolTipView) && !pendingDismissals.contains(toolTipView)) {
+            pendingDismissals.add(toolTipView);
+            scheduler.schedule();
+        }
+    }
+
+    /**
+     * Dismisses the tool tip view shown or to be shown for the given anchor on the next frame.
+     */
+    public void dismiss(@NonNull View anchorView) {
+        final ToolTipView toolTipView = getToolTipView(anchorView);
+        if (toolTipView != null) {
+            dismiss(toolTipView);
+        }
+    }
+
+    /**
+     * Dismisses all tool tip views on the next frame, and drops the pending ones.
+     */
+    public void dismissAll() {
+        for (int i = delayedShows.size() - 1; i >= 0; --i) {
+            delayedShows.get(i).remove();
+        }
+        delayedShows.clear();
+        for (int i = 0, size = pendingShows.size(); i < size; ++i) {
+            pendingShows.get(i).remove();
+        }
+        pendingShows.clear();
+        for (int i = 0, size = visible.size(); i < size; ++i) {
+            final ToolTipView toolTipView = visible.get(i);
+            if (!pendingDismissals.contains(toolTipView)) {
+                pendingDismissals.add(toolTipView);
+            }
+        }
+        if (!pendingDismissals.isEmpty()) {
+            scheduler.schedule();
+        }
+    }
+
+    /**
+     * Returns the tool tip view shown or to be shown for the given anchor, or null if none. Tool tip
+     * views about to be dismissed are ignored.
+     */
+    @Nullable
+    public ToolTipView getToolTipView(@NonNull View anchorView) {
+        for (int i = pendingShows.size() - 1; i >= 0; --i) {
+            final ToolTipView toolTipView = pendingShows.get(i);
+            if (toolTipView.getAnchorView() == anchorView) {
+                return toolTipView;
+            }
+        }
+        for (int i = delayedShows.size() - 1; i >= 0; --i) {
+            final ToolTipView toolTipView = delayedShows.get(i);
+            if (toolTipView.getAnchorView() == anchorView) {
+                return toolTipView;
+            }
+        }
+        for (int i = visible.size() - 1; i >= 0; --i) {
+            final ToolTipView toolTipView = visible.get(i);
+            if (toolTipView.getAnchorView() == anchorView && !pendingDismissals.contains(toolTipView)) {
+                return toolTipView;
+            }
+        }
+        return null;
+    }
+
+    private void flush() {
+        for (int i = 0, size = pendingShows.size(); i < size; ++i) {
+            final ToolTipView existing = findVisible(pendingShows.get(i).getAnchorView());
+            if (existing != null && !pendingDismissals.contains(existing)) {
+                pendingDismissals.add(existing);
+            }
+        }
+
+        int remaining = visible.size() - pendingDismissals.size() + pendingShows.size();
+        for (int i = 0; remaining > maxVisible && i < visible.size(); ++i) {
+            final ToolTipView oldest = visible.get(i);
+            if (!pendingDismissals.contains(oldest)) {
+                pendingDismissals.add(oldest);
+                --remaining;
+            }
+        }
+
+        for (int i = 0, size = pendingDismissals.size(); i < size; ++i) {
+            final ToolTipView toolTipView = pendingDismissals.get(i);
+            visible.remove(toolTipView);
+            toolTipView.setManager(null);
+            toolTipView.remove();
+        }
+        pendingDismissals.clear();
+
+        // only the newest ones are shown, if more are requested than allowed
+        final int size = pendingShows.size();
+        final int first = Math.max(0, size - maxVisible);
+        for (int i = 0; i < first; ++i) {
+            pendingShows.get(i).remove();
+        }
+        for (int i = first; i < size; ++i) {
+            final ToolTipView toolTipView = pendingShows.get(i);
+            toolTipView.setManager(this);
+            toolTipView.setEnterAnimationDelay((i - first) * staggerDelay);
+            toolTipView.show();
+            if (toolTipView.isShowing()) {
+                visible.add(toolTipView);
+            } else {
+                // e.g. the anchor isn't in a window anymore
+                toolTipView.setManager(null);
+                toolTipView.remove();
+            }
+        }
+        pendingShows.clear();
+    }
+
+    /**
+     * Removes the tool tip views whose show is delayed for the given anchor.
+     */
+    private void removeDelayedShows(View anchorView) {
+        for (int i = delayedShows.size() - 1; i >= 0; --i) {
+            // also drops it from the delayed shows
+            final ToolTipView toolTipView = delayedShows.get(i);
+            if (toolTipView.getAnchorView() == anchorView) {
+                toolTipView.remove();
+            }
+        }
+    }
+
+    @Nullable
+    private ToolTipView findVisible(View anchorView) {
+        for (int i = visible.size() - 1; i >= 0; --i) {
+            final ToolTipView toolTipView = visible.get(i);
+            if (toolTipView.getAnchorView() == anchorView) {
+                return toolTipView;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Called when a tool tip view shown by this manager is removed by others, e.g. after clicked, or
+     * when its delayed show is cancelled.
+     */
+    void onToolTipRemoved(@NonNull ToolTipView toolTipView) {
+        delayedShows.remove(toolTipView);
+        visible.remove(toolTipView);
+        pendingDismissals.remove(toolTipView);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+/**
+ * Keeps the counters of all tool tip views in the process, and the listener reporting metrics for
+ * all of them.
+ */
+@UiThread
+public final class ToolTipMetrics {
+    @Nullable
+    private static ToolTipMetricsListener listener;
+
+    private static int liveCount;
+    private static long createdCount;
+    private static long reusedCount;
+    private static long shownCount;
+
+    private ToolTipMetrics() {
+    }
+
+    /**
+     * Sets a listener reporting metrics for all tool tip views, in addition to the one set for each
+     * tool tip view.
+     */
+    public static void setListener(@Nullable ToolTipMetricsListener listener) {
+        ToolTipMetrics.listener = listener;
+    }
+
+    @Nullable
+    static ToolTipMetricsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns the number of tool tip views currently shown, including the ones being removed.
+     */
+    public static int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Returns the number of tool tip views created.
+     */
+    public static long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * Returns the number of tool tip views obtained from a {@link ToolTipViewPool} instead of being
+     * created.
+     */
+    public static long getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Returns the number of times tool tip views are shown.
+     */
+    public static long getShownCount() {
+        return shownCount;
+    }
+
+    /**
+     * Resets all counters but the live count, e.g. after they're exported.
+     */
+    public static void reset() {
+        createdCount = 0L;
+        reusedCount = 0L;
+        shownCount = 0L;
+    }
+
+    static void onCreated() {
+        ++createdCount;
+    }
+
+    static void onReused() {
+        ++reusedCount;
+    }
+
+    static void onShown() {
+        ++liveCount;
+        ++shownCount;
+    }
+
+    static void onDismissed() {
+        --liveCount;
+    }
+}
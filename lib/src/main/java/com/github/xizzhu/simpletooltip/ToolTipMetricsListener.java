@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.xizzhu.simpletooltip;
+
+/**
+ * Reports what it costs to show and remove tool tips. It can be set for all tool tip views using
+ * {@link ToolTipMetrics#setListener(ToolTipMetricsListener)}, or for one tool tip view using
+ * {@link ToolTipView#setMetricsListener(ToolTipMetricsListener)}. All methods are called on the main
+ * thread.
+ */
+public interface ToolTipMetricsListener {
+    /**
+     * Called on the first pre-draw of the tool tip view after it's shown.
+     *
+     * @param showLatencyNanos time since {@link ToolTipView#show()} or
+     *                         {@link ToolTipView#showDelayed(long)} is called, excluding the delay
+     * @param placementNanos   time spent measuring and placing the tool tip
+     */
+    void onToolTipShown(ToolTipView toolTipView, long showLatencyNanos, long placementNanos);
+
+    /**
+     * Called when the enter animation ends, or right after shown if not animated.
+     *
+     * @param layoutPasses  how many times the tool tip is laid out since shown
+     * @param frames        frames rendered during the animation
+     * @param droppedFrames frames missed during the animation
+     */
+    void onEnterAnimationEnd(ToolTipView toolTipView, int layoutPasses, int frames, int droppedFrames);
+
+    /**
+     * Called when the exit animation ends, or right after removed if not animated.
+     *
+     * @param frames        frames rendered during the animation
+     * @param droppedFrames frames missed during the animation
+     */
+    void onExitAnimationEnd(ToolTipView toolTipView, int frames, int droppedFrames);
+}
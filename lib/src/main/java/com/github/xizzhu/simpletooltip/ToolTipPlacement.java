@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+/**
+ * Calculates where a tool tip is placed around its anchor.
+ * <p/>
+ * It only works with plain ints and has no Android dependencies. The results are kept in its fields
+ * until the next call, so that no objects are allocated. It's not thread safe.
+ */
+final class ToolTipPlacement {
+    // same values as android.view.Gravity
+    static final int GRAVITY_AUTO = 0x00;
+    static final int GRAVITY_LEFT = 0x03;
+    static final int GRAVITY_RIGHT = 0x05;
+    static final int GRAVITY_TOP = 0x30;
+    static final int GRAVITY_BOTTOM = 0x50;
+
+    private int boundsLeft;
+    private int boundsTop;
+    private int boundsRight;
+    private int boundsBottom;
+
+    private int anchorLeft;
+    private int anchorTop;
+    private int anchorRight;
+    private int anchorBottom;
+
+    /**
+     * The resolved gravity, never {@link #GRAVITY_AUTO}.
+     */
+    int gravity;
+
+    /**
+     * The position of the tool tip, including the arrow, in the same coordinates as the bounds and
+     * the anchor.
+     */
+    int x;
+    int y;
+
+    /**
+     * The size of the tool tip, including the arrow.
+     */
+    int width;
+    int height;
+
+    /**
+     * The maximum width of the body, i.e. the tool tip without the arrow, to fit in the bounds.
+     */
+    int maxBodyWidth;
+
+    /**
+     * The position of the center of the arrow, along the edge of the body it's attached to.
+     */
+    int arrowCenter;
+
+    /**
+     * The pivot, i.e. the tip of the arrow, relative to the tool tip.
+     */
+    int pivotX;
+    int pivotY;
+
+    static boolean isVertical(int gravity) {
+        return gravity == GRAVITY_TOP || gravity == GRAVITY_BOTTOM;
+    }
+
+    /**
+     * Sets the area the tool tip should be placed in.
+     */
+    void setBounds(int left, int top, int right, int bottom) {
+        boundsLeft = left;
+        boundsTop = top;
+        boundsRight = right;
+        boundsBottom = bottom;
+    }
+
+    /**
+     * Sets the area of the anchor.
+     */
+    void setAnchor(int left, int top, int right, int bottom) {
+        anchorLeft = left;
+        anchorTop = top;
+        anchorRight = right;
+        anchorBottom = bottom;
+    }
+
+    /**
+     * Picks the first side, in the order of bottom, top, right, and left, where the tool tip fits
+     * without being clamped. If it fits nowhere, the side with the most space is picked.
+     *
+     * @param bodyWidth   width of the tool tip without the arrow
+     * @param bodyHeight  height of the tool tip without the arrow
+     * @param arrowWidth  length of the arrow's base
+     * @param arrowHeight distance from the arrow's base to its tip
+     */
+    int resolveGravity(int bodyWidth, int bodyHeight, int arrowWidth, int arrowHeight) {
+        final int boundsWidth = boundsRight - boundsLeft;
+        final int boundsHeight = boundsBottom - boundsTop;
+
+        final int verticalWidth = Math.max(bodyWidth, arrowWidth);
+        final int verticalHeight = bodyHeight + arrowHeight;
+        final int spaceBelow = boundsBottom - anchorBottom;
+        final int spaceAbove = anchorTop - boundsTop;
+        if (verticalWidth <= boundsWidth) {
+            if (verticalHeight <= spaceBelow) {
+                return GRAVITY_BOTTOM;
+            }
+            if (verticalHeight <= spaceAbove) {
+                return GRAVITY_TOP;
+            }
+        }
+
+        final int horizontalWidth = bodyWidth + arrowHeight;
+        final int horizontalHeight = Math.max(bodyHeight, arrowWidth);
+        final int spaceRight = boundsRight - anchorRight;
+        final int spaceLeft = anchorLeft - boundsLeft;
+        if (horizontalHeight <= boundsHeight) {
+            if (horizontalWidth <= spaceRight) {
+                return GRAVITY_RIGHT;
+            }
+            if (horizontalWidth <= spaceLeft) {
+                return GRAVITY_LEFT;
+            }
+        }
+
+        int gravity = GRAVITY_BOTTOM;
+        int space = spaceBelow;
+        if (spaceAbove > space) {
+            gravity = GRAVITY_TOP;
+            space = spaceAbove;
+        }
+        if (spaceRight > space) {
+            gravity = GRAVITY_RIGHT;
+            space = spaceRight;
+        }
+        if (spaceLeft > space) {
+            gravity = GRAVITY_LEFT;
+        }
+        return gravity;
+    }
+
+    /**
+     * Places the tool tip with the given gravity, which is resolved first if it's
+     * {@link #GRAVITY_AUTO}.
+     *
+     * @param bodyWidth   width of the tool tip without the arrow
+     * @param bodyHeight  height of the tool tip without the arrow
+     * @param arrowWidth  length of the arrow's base
+     * @param arrowHeight distance from the arrow's base to its tip
+     */
+    void place(int gravity, int bodyWidth, int bodyHeight, int arrowWidth, int arrowHeight) {
+        if (gravity == GRAVITY_AUTO) {
+            gravity = resolveGravity(bodyWidth, bodyHeight, arrowWidth, arrowHeight);
+        }
+        this.gravity = gravity;
+
+        if (isVertical(gravity)) {
+            width = Math.max(bodyWidth, arrowWidth);
+            height = bodyHeight + arrowHeight;
+            maxBodyWidth = boundsRight - boundsLeft;
+
+            final int anchorHorizontalCenter = anchorLeft + (anchorRight - anchorLeft) / 2;
+            x = clamp(anchorHorizontalCenter - width / 2, boundsLeft, boundsRight - width);
+            y = gravity == GRAVITY_TOP ? anchorTop - height : anchorBottom;
+
+            arrowCenter = anchorHorizontalCenter - x;
+            pivotX = arrowCenter;
+            pivotY = gravity == GRAVITY_TOP ? height : 0;
+        } else {
+            width = bodyWidth + arrowHeight;
+            height = Math.max(bodyHeight, arrowWidth);
+            maxBodyWidth = (gravity == GRAVITY_LEFT
+                    ? anchorLeft - boundsLeft : boundsRight - anchorRight) - arrowHeight;
+
+            final int anchorVerticalCenter = anchorTop + (anchorBottom - anchorTop) / 2;
+            x = gravity == GRAVITY_LEFT ? Math.max(boundsLeft, anchorLeft - width) : anchorRight;
+            y = clamp(anchorVerticalCenter - height / 2, boundsTop, boundsBottom - height);
+
+            arrowCenter = anchorVerticalCenter - y;
+            pivotX = gravity == GRAVITY_LEFT ? anchorLeft - x : 0;
+            pivotY = arrowCenter;
+        }
+    }
+
+    // the lower bound wins, if the value doesn't fit in the range
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
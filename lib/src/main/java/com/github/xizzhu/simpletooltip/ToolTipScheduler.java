@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Runs delayed actions of all tool tip views, i.e. showing and dismissing. The pending tasks are
+ * kept in one queue ordered by time, and a single callback is posted to the main thread for the
+ * earliest one. All pending tasks of an activity are dropped when it's destroyed.
+ */
+@UiThread
+final class ToolTipScheduler implements Runnable {
+    static final int ACTION_SHOW = 0;
+    static final int ACTION_DISMISS = 1;
+
+    /**
+     * A delayed action of a tool tip view. Each tool tip view keeps one task for each action, which
+     * is re-used when scheduled again.
+     */
+    static final class Task {
+        final ToolTipView toolTipView;
+        final int action;
+
+        long time;
+        long sequence;
+        boolean scheduled;
+
+        Task(@NonNull ToolTipView toolTipView, int action) {
+            this.toolTipView = toolTipView;
+            this.action = action;
+        }
+    }
+
+    private static final Comparator<Task> TASK_COMPARATOR = new Comparator<Task>() {
+        @Override
+        public int compare(Task lhs, Task rhs) {
+            if (lhs.time != rhs.time) {
+                return lhs.time < rhs.time ? -1 : 1;
+            }
+            return lhs.sequence < rhs.sequence ? -1 : (lhs.sequence == rhs.sequence ? 0 : 1);
+        }
+    };
+
+    private static ToolTipScheduler instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(11, TASK_COMPARATOR);
+    private final ArrayList<Task> scratch = new ArrayList<>();
+
+    private long nextSequence;
+    private long postedTime = Long.MAX_VALUE;
+
+    private ToolTipScheduler() {
+    }
+
+    @NonNull
+    static ToolTipScheduler getInstance() {
+        if (instance == null) {
+            instance = new ToolTipScheduler();
+        }
+        return instance;
+    }
+
+    void schedule(@NonNull Task task, long delayMillis) {
+        ToolTipLifecycle.getInstance().register(task.toolTipView.getContext());
+
+        if (task.scheduled) {
+            queue.remove(task);
+        }
+        task.time = SystemClock.uptimeMillis() + Math.max(0L, delayMillis);
+        task.sequence = nextSequence++;
+        task.scheduled = true;
+        queue.add(task);
+        postNext();
+    }
+
+    void cancel(@Nullable Task task) {
+        if (task == null || !task.scheduled) {
+            return;
+        }
+        task.scheduled = false;
+        queue.remove(task);
+        postNext();
+    }
+
+    /**
+     * Drops all pending tasks of the given activity.
+     */
+    void cancelAll(@NonNull Activity activity) {
+        for (Task task : queue) {
+            if (ToolTipLifecycle.findActivity(task.toolTipView.getContext()) == activity) {
+                scratch.add(task);
+            }
+        }
+        for (int i = 0, size = scratch.size(); i < size; ++i) {
+            final Task task = scratch.get(i);
+            task.scheduled = false;
+            queue.remove(task);
+        }
+        scratch.clear();
+        postNext();
+    }
+
+    @Override
+    public void run() {
+        postedTime = Long.MAX_VALUE;
+
+        final long now = SystemClock.uptimeMillis();
+        Task task = queue.peek();
+        while (task != null && task.time <= now) {
+            queue.poll();
+            task.scheduled = false;
+            task.toolTipView.runScheduledAction(task.action);
+            task = queue.peek();
+        }
+        postNext();
+    }
+
+    private void postNext() {
+        final Task next = queue.peek();
+        if (next == null) {
+            handler.removeCallbacks(this);
+            postedTime = Long.MAX_VALUE;
+        } else if (next.time != postedTime) {
+            handler.removeCallbacks(this);
+            handler.postAtTime(this, next.time);
+            postedTime = next.time;
+        }
+    }
+}
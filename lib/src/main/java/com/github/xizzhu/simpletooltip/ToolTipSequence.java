@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+
+/**
+ * Shows tool tips for a list of anchors one after another, e.g. for a tour of the screen. The same
+ * window is moved from one step to the next, and the text of the next step is measured when the
+ * main thread is idle, so that moving to it only takes one frame. Clicking the tool tip moves to the
+ * next step.
+ */
+@UiThread
+public class ToolTipSequence {
+    public interface Listener {
+        /**
+         * Called when the tool tip of the given step is shown.
+         */
+        void onStepShown(ToolTipSequence sequence, int step);
+
+        /**
+         * Called when the sequence is finished, either after the last step or when the tool tip is
+         * dismissed.
+         */
+        void onSequenceFinished(ToolTipSequence sequence);
+    }
+
+    private static final class Step {
+        final View anchorView;
+        final ToolTip toolTip;
+        final int gravity;
+
+        Step(View anchorView, ToolTip toolTip, int gravity) {
+            this.anchorView = anchorView;
+            this.toolTip = toolTip;
+            this.gravity = gravity;
+        }
+    }
+
+    private final MessageQueue.IdleHandler prefetcher = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            prefetchScheduled = false;
+            final int next = current + 1;
+            if (current >= 0 && next < steps.size()) {
+                final Step step = steps.get(next);
+                if (step.anchorView.getWindowToken() != null) {
+                    ToolTipView.prefetch(step.anchorView, step.gravity, step.toolTip);
+                }
+            }
+            return false;
+        }
+    };
+
+    private final ToolTipView.OnToolTipClickedListener clickedListener =
+            new ToolTipView.OnToolTipClickedListener() {
+                @Override
+                public void onToolTipClicked(ToolTipView toolTipView) {
+                    next();
+                }
+            };
+
+    private final ToolTipView.OnToolTipDismissedListener dismissedListener =
+            new ToolTipView.OnToolTipDismissedListener() {
+                @Override
+                public void onToolTipDismissed(ToolTipView toolTipView) {
+                    onFinished();
+                }
+            };
+
+    private final Context context;
+    private final ArrayList<Step> steps;
+    private final int renderMode;
+    private final int windowMode;
+
+    private Listener listener;
+    private ToolTipView toolTipView;
+    private int current = -1;
+    private boolean prefetchScheduled;
+
+    private ToolTipSequence(Context context, ArrayList<Step> steps, int renderMode, int windowMode) {
+        this.context = context;
+        this.steps = steps;
+        this.renderMode = renderMode;
+        this.windowMode = windowMode;
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Shows the first step. Does nothing if the sequence is already started.
+     */
+    public void start() {
+        if (current < 0) {
+            showStep(0);
+        }
+    }
+
+    /**
+     * Moves to the next step, or finishes the sequence after the last step.
+     */
+    public void next() {
+        if (current < 0) {
+            return;
+        }
+        if (current + 1 < steps.size()) {
+            showStep(current + 1);
+        } else {
+            finish();
+        }
+    }
+
+    /**
+     * Removes the tool tip and finishes the sequence.
+     */
+    public void finish() {
+        if (toolTipView != null) {
+            toolTipView.remove();
+        }
+    }
+
+    /**
+     * @return The index of the step being shown, or -1 if the sequence is not started or finished.
+     */
+    public int getCurrentStep() {
+        return current;
+    }
+
+    private void showStep(int index) {
+        final Step step = steps.get(index);
+        current = index;
+        if (toolTipView == null) {
+            toolTipView = new ToolTipView.Builder(context)
+                    .withAnchor(step.anchorView)
+                    .withToolTip(step.toolTip)
+                    .withGravity(step.gravity)
+                    .withRenderMode(renderMode)
+                    .withWindowMode(windowMode)
+                    .build();
+            toolTipView.setRemoveOnClick(false);
+            toolTipView.setOnToolTipClickedListener(clickedListener);
+            toolTipView.setOnToolTipDismissedListener(dismissedListener);
+            toolTipView.show();
+        } else {
+            toolTipView.moveTo(step.anchorView, step.gravity, step.toolTip);
+        }
+
+        if (listener != null) {
+            listener.onStepShown(this, index);
+        }
+        if (index + 1 < steps.size() && !prefetchScheduled) {
+            prefetchScheduled = true;
+            Looper.myQueue().addIdleHandler(prefetcher);
+        }
+    }
+
+    private void onFinished() {
+        toolTipView = null;
+        current = -1;
+        if (prefetchScheduled) {
+            prefetchScheduled = false;
+            Looper.myQueue().removeIdleHandler(prefetcher);
+        }
+        if (listener != null) {
+            listener.onSequenceFinished(this);
+        }
+    }
+
+    /**
+     * Used to build a tool tip sequence.
+     */
+    public static class Builder {
+        private final Context context;
+        private final ArrayList<Step> steps = new ArrayList<>();
+        private int renderMode = ToolTipView.RENDER_MODE_CANVAS;
+        private int windowMode = ToolTipView.WINDOW_MODE_WRAP_CONTENT;
+
+        public Builder(Context context) {
+            this.context = context;
+        }
+
+        /**
+         * Adds a step showing the tool tip for the anchor view with the given gravity.
+         */
+        public Builder addStep(View anchorView, ToolTip toolTip, int gravity) {
+            if (anchorView == null) {
+                throw new IllegalArgumentException("Missing anchor");
+            }
+            if (toolTip == null) {
+                throw new IllegalArgumentException("Missing tooltip");
+            }
+            steps.add(new Step(anchorView, toolTip,
+                    ToolTipView.resolveRelativeGravity(anchorView, gravity)));
+            return this;
+        }
+
+        /**
+         * Sets how the tool tips are rendered. By default, it uses ToolTipView.RENDER_MODE_CANVAS, so
+         * that the text of the next step can be measured ahead.
+         */
+        public Builder withRenderMode(int renderMode) {
+            this.renderMode = renderMode;
+            return this;
+        }
+
+        /**
+         * Sets the size of the window hosting the tool tips. By default, it uses
+         * ToolTipView.WINDOW_MODE_WRAP_CONTENT.
+         */
+        public Builder withWindowMode(int windowMode) {
+            this.windowMode = windowMode;
+            return this;
+        }
+
+        /**
+         * Creates the tool tip sequence.
+         */
+        public ToolTipSequence build() {
+            if (context == null) {
+                throw new IllegalArgumentException("Missing context");
+            }
+            if (steps.isEmpty()) {
+                throw new IllegalArgumentException("Missing steps");
+            }
+            if (renderMode != ToolTipView.RENDER_MODE_VIEWS && renderMode != ToolTipView.RENDER_MODE_CANVAS) {
+                throw new IllegalArgumentException("Unsupported render mode - " + renderMode);
+            }
+            if (windowMode != ToolTipView.WINDOW_MODE_FULL_SCREEN
+                    && windowMode != ToolTipView.WINDOW_MODE_WRAP_CONTENT) {
+                throw new IllegalArgumentException("Unsupported window mode - " + windowMode);
+            }
+            return new ToolTipSequence(context, new ArrayList<>(steps), renderMode, windowMode);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.util.LruCache;
+import android.view.Gravity;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+/**
+ * The look of a tool tip, i.e. everything but its text. Styles are immutable and interned, so that
+ * equal styles built anywhere are the same instance, and the resolved typeface, the background and
+ * the arrows are created once and shared by all tool tips using the style.
+ */
+public final class ToolTipStyle {
+    private static final int MAX_INTERNED_STYLES = 32;
+    private static final LruCache<ToolTipStyle, ToolTipStyle> STYLES =
+            new LruCache<ToolTipStyle, ToolTipStyle>(MAX_INTERNED_STYLES);
+
+    /**
+     * The default style, i.e. white 13px text on black background, without padding.
+     */
+    public static final ToolTipStyle DEFAULT = new Builder().build();
+
+    private final int textGravity;
+    private final int textColor;
+    private final float textSize;
+    private final Typeface typeface;
+    private final int typefaceStyle;
+    private final int lines;
+    private final int backgroundColor;
+    private final int leftPadding;
+    private final int rightPadding;
+    private final int topPadding;
+    private final int bottomPadding;
+    private final float radius;
+    private final int arrowWidth;
+    private final int arrowHeight;
+    private final int hashCode;
+
+    // lazily created, and shared by all tool tips using this style
+    @Nullable
+    private Typeface resolvedTypeface;
+    private boolean fakeBoldText;
+    private float textSkewX;
+    @Nullable
+    private Drawable.ConstantState backgroundState;
+    // indexed by ArrowDrawable direction, i.e. top, bottom, left, and right
+    @Nullable
+    private Drawable.ConstantState[] arrowStates;
+
+    private ToolTipStyle(int textGravity, int textColor, float textSize, Typeface typeface,
+                         int typefaceStyle, int lines, int backgroundColor, int leftPadding,
+                         int rightPadding, int topPadding, int bottomPadding, float radius,
+                         int arrowWidth, int arrowHeight) {
+        this.textGravity = textGravity;
+        this.textColor = textColor;
+        this.textSize = textSize;
+        this.typeface = typeface;
+        this.typefaceStyle = typefaceStyle;
+        this.lines = lines;
+        this.backgroundColor = backgroundColor;
+        this.leftPadding = leftPadding;
+        this.rightPadding = rightPadding;
+        this.topPadding = topPadding;
+        this.bottomPadding = bottomPadding;
+        this.radius = radius;
+        this.arrowWidth = arrowWidth;
+        this.arrowHeight = arrowHeight;
+
+        int result = textGravity;
+        result = 31 * result + textColor;
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + typeface.hashCode();
+        result = 31 * result + typefaceStyle;
+        result = 31 * result + lines;
+        result = 31 * result + backgroundColor;
+        result = 31 * result + leftPadding;
+        result = 31 * result + rightPadding;
+        result = 31 * result + topPadding;
+        result = 31 * result + bottomPadding;
+        result = 31 * result + Float.floatToIntBits(radius);
+        result = 31 * result + arrowWidth;
+        result = 31 * result + arrowHeight;
+        hashCode = result;
+    }
+
+    public int getTextGravity() {
+        return textGravity;
+    }
+
+    @ColorInt
+    public int getTextColor() {
+        return textColor;
+    }
+
+    public float getTextSize() {
+        return textSize;
+    }
+
+    @NonNull
+    public Typeface getTypeface() {
+        return typeface;
+    }
+
+    public int getTypefaceStyle() {
+        return typefaceStyle;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    @ColorInt
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public int getLeftPadding() {
+        return leftPadding;
+    }
+
+    public int getRightPadding() {
+        return rightPadding;
+    }
+
+    public int getTopPadding() {
+        return topPadding;
+    }
+
+    public int getBottomPadding() {
+        return bottomPadding;
+    }
+
+    public float getCornerRadius() {
+        return radius;
+    }
+
+    public int getArrowWidth() {
+        return arrowWidth;
+    }
+
+    public int getArrowHeight() {
+        return arrowHeight;
+    }
+
+    /**
+     * Returns the typeface with the typeface style applied, resolved the same way as
+     * TextView.setTypeface(Typeface, int). Use it with {@link #isFakeBoldText()} and
+     * {@link #getTextSkewX()}.
+     */
+    @UiThread
+    @NonNull
+    Typeface getResolvedTypeface() {
+        if (resolvedTypeface == null) {
+            if (typefaceStyle > 0) {
+                final Typeface tf = Typeface.create(typeface, typefaceStyle);
+                final int need = typefaceStyle & ~(tf != null ? tf.getStyle() : 0);
+                fakeBoldText = (need & Typeface.BOLD) != 0;
+                textSkewX = (need & Typeface.ITALIC) != 0 ? -0.25F : 0.0F;
+                resolvedTypeface = tf != null ? tf : typeface;
+            } else {
+                resolvedTypeface = typeface;
+            }
+        }
+        return resolvedTypeface;
+    }
+
+    @UiThread
+    boolean isFakeBoldText() {
+        getResolvedTypeface();
+        return fakeBoldText;
+    }
+
+    @UiThread
+    float getTextSkewX() {
+        getResolvedTypeface();
+        return textSkewX;
+    }
+
+    /**
+     * Returns the constant state of the background. Drawables created from it share the state, so
+     * they must not be mutated.
+     */
+    @UiThread
+    @NonNull
+    Drawable.ConstantState getBackgroundState() {
+        if (backgroundState == null) {
+            final GradientDrawable background = new GradientDrawable();
+            background.setGradientType(GradientDrawable.RECTANGLE);
+            background.setColor(backgroundColor);
+            background.setCornerRadius(radius);
+            backgroundState = background.getConstantState();
+        }
+        return backgroundState;
+    }
+
+    /**
+     * Returns the constant state of the arrow pointing to the given direction, in the given size.
+     */
+    @UiThread
+    @NonNull
+    Drawable.ConstantState getArrowState(int direction, int width, int height) {
+        if (arrowStates == null) {
+            arrowStates = new Drawable.ConstantState[4];
+        }
+        final int index = getArrowIndex(direction);
+        Drawable.ConstantState state = arrowStates[index];
+        if (state == null || !ArrowDrawable.hasSize(state, width, height)) {
+            // the size only changes with the density, e.g. when the default size is used
+            state = ArrowDrawable.obtain(backgroundColor, direction, width, height).getConstantState();
+            arrowStates[index] = state;
+        }
+        return state;
+    }
+
+    private static int getArrowIndex(int direction) {
+        switch (direction) {
+            case Gravity.BOTTOM:
+                return 1;
+            case Gravity.LEFT:
+                return 2;
+            case Gravity.RIGHT:
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ToolTipStyle)) {
+            return false;
+        }
+        final ToolTipStyle other = (ToolTipStyle) o;
+        return hashCode == other.hashCode
+                && textGravity == other.textGravity
+                && textColor == other.textColor
+                && Float.compare(textSize, other.textSize) == 0
+                && typeface.equals(other.typeface)
+                && typefaceStyle == other.typefaceStyle
+                && lines == other.lines
+                && backgroundColor == other.backgroundColor
+                && leftPadding == other.leftPadding
+                && rightPadding == other.rightPadding
+                && topPadding == other.topPadding
+                && bottomPadding == other.bottomPadding
+                && Float.compare(radius, other.radius) == 0
+                && arrowWidth == other.arrowWidth
+                && arrowHeight == other.arrowHeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Used to build a tool tip style.
+     */
+    public static class Builder {
+        private int textGravity = Gravity.NO_GRAVITY;
+        private int textColor = Color.WHITE;
+        private float textSize = 13.0F;
+        private Typeface typeface = Typeface.DEFAULT;
+        private int typefaceStyle = Typeface.NORMAL;
+        private int lines = 0;
+        private int backgroundColor = Color.BLACK;
+        private int leftPadding = 0;
+        private int rightPadding = 0;
+        private int topPadding = 0;
+        private int bottomPadding = 0;
+        private float radius = 0.0F;
+        private int arrowWidth = 0;
+        private int arrowHeight = 0;
+
+        /**
+         * Creates a new builder.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Creates a new builder, with the values copied from the given style.
+         */
+        public Builder(@NonNull ToolTipStyle style) {
+            if (style == null) {
+                throw new IllegalArgumentException("Missing style");
+            }
+            textGravity = style.textGravity;
+            textColor = style.textColor;
+            textSize = style.textSize;
+            typeface = style.typeface;
+            typefaceStyle = style.typefaceStyle;
+            lines = style.lines;
+            backgroundColor = style.backgroundColor;
+            leftPadding = style.leftPadding;
+            rightPadding = style.rightPadding;
+            topPadding = style.topPadding;
+            bottomPadding = style.bottomPadding;
+            radius = style.radius;
+            arrowWidth = style.arrowWidth;
+            arrowHeight = style.arrowHeight;
+        }
+
+        /**
+         * Sets the text gravity of the tool tip. The default value is {@link Gravity#NO_GRAVITY}.
+         */
+        public Builder withTextGravity(int gravity) {
+            this.textGravity = gravity;
+            return this;
+        }
+
+        /**
+         * Sets the text color for the tool tip. The default color is white.
+         */
+        public Builder withTextColor(@ColorInt int textColor) {
+            this.textColor = textColor;
+            return this;
+        }
+
+        /**
+         * Sets the text size in pixel for the tool tip. The default size is 13.
+         */
+        public Builder withTextSize(float textSize) {
+            this.textSize = textSize;
+            return this;
+        }
+
+        /**
+         * Sets the typeface for the tool tip. The default value is {@link Typeface#DEFAULT}.
+         */
+        public Builder withTypeface(Typeface typeface) {
+            if (typeface != null) {
+                this.typeface = typeface;
+            }
+            return this;
+        }
+
+        /**
+         * Sets the typeface style for the tool tip. The default value is {@link Typeface#NORMAL}.
+         */
+        public Builder withTypefaceStyle(int style) {
+            this.typefaceStyle = style;
+            return this;
+        }
+
+        /**
+         * Sets the exact lines for the tool tip. The default value is unset.
+         */
+        public Builder withLines(int lines) {
+            this.lines = lines;
+            return this;
+        }
+
+        /**
+         * Sets the background color for the tool tip. The default color is black.
+         */
+        public Builder withBackgroundColor(@ColorInt int backgroundColor) {
+            this.backgroundColor = backgroundColor;
+            return this;
+        }
+
+        /**
+         * Sets the padding in pixel for the tool tip. The default padding is 0.
+         */
+        public Builder withPadding(int leftPadding, int rightPadding, int topPadding, int bottomPadding) {
+            this.leftPadding = leftPadding;
+            this.rightPadding = rightPadding;
+            this.topPadding = topPadding;
+            this.bottomPadding = bottomPadding;
+            return this;
+        }
+
+        /**
+         * Sets the corner radius in pixel for the tool tip. The default value is 0.
+         */
+        public Builder withCornerRadius(float radius) {
+            this.radius = radius;
+            return this;
+        }
+
+        /**
+         * Sets the arrow size in pixel for the tool tip. The width is the length of the arrow's base,
+         * and the height is the distance from its base to its tip. The default size is 20dp x 10dp.
+         */
+        public Builder withArrowSize(int arrowWidth, int arrowHeight) {
+            this.arrowWidth = arrowWidth;
+            this.arrowHeight = arrowHeight;
+            return this;
+        }
+
+        /**
+         * Creates a tool tip style, or returns the existing one equal to it.
+         */
+        @NonNull
+        public ToolTipStyle build() {
+            final ToolTipStyle style = new ToolTipStyle(textGravity, textColor, textSize, typeface,
+                    typefaceStyle, lines, backgroundColor, leftPadding, rightPadding, topPadding,
+                    bottomPadding, radius, arrowWidth, arrowHeight);
+            synchronized (STYLES) {
+                final ToolTipStyle interned = STYLES.get(style);
+                if (interned != null) {
+                    return interned;
+                }
+                STYLES.put(style, style);
+                return style;
+            }
+        }
+    }
+}
@@ -16,126 +16,502 @@
 
 package com.github.xizzhu.simpletooltip;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.app.Activity;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.content.ContentResolver;
 import android.content.Context;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
-import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.provider.Settings;
 import android.text.TextUtils;
-import android.util.DisplayMetrics;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.PopupWindow;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 
+import java.util.concurrent.Executor;
+
 public class ToolTipView implements ViewTreeObserver.OnPreDrawListener, View.OnClickListener {
     public interface OnToolTipClickedListener {
         void onToolTipClicked(ToolTipView toolTipView);
     }
 
-    private static final long ANIMATION_DURATION = 300L;
+    /**
+     * Called once the tool tip view is removed, after the exit animation ends.
+     */
+    public interface OnToolTipDismissedListener {
+        void onToolTipDismissed(ToolTipView toolTipView);
+    }
+
+    /**
+     * Renders the tool tip using a text view for the text, and an image view for the arrow. The text
+     * is measured by the text view, without the {@link TextLayoutCache}.
+     */
+    public static final int RENDER_MODE_VIEWS = 0;
+
+    /**
+     * Renders the tool tip using a single view, which draws the background, the arrow, and the
+     * text directly onto the canvas.
+     */
+    public static final int RENDER_MODE_CANVAS = 1;
+
+    /**
+     * Shows the tool tip in a full screen window, which consumes all touch events. The whole window
+     * is clickable, so a tap anywhere on the screen counts as a click on the tool tip, which removes
+     * it by default, and never reaches the views behind.
+     */
+    public static final int WINDOW_MODE_FULL_SCREEN = 0;
+
+    /**
+     * Shows the tool tip in a window sized to the tool tip, so that touch events outside of it are
+     * passed to the windows behind.
+     */
+    public static final int WINDOW_MODE_WRAP_CONTENT = 1;
+
+    /**
+     * Shows the tool tip in a popup window, i.e. a new window on top of the anchor's window.
+     */
+    public static final int HOST_POPUP_WINDOW = 0;
+
+    /**
+     * Shows the tool tip in a layer added to the anchor's own window, which saves creating a new
+     * window each time it's shown. The tool tip can only be drawn over the anchor's window.
+     */
+    public static final int HOST_OVERLAY = 1;
+
+    /**
+     * Fades and scales the tool tip from the tip of its arrow.
+     */
+    public static final int ANIMATION_TYPE_SCALE = 0;
+
+    /**
+     * Only fades the tool tip.
+     */
+    public static final int ANIMATION_TYPE_FADE = 1;
+
+    /**
+     * Shows and removes the tool tip without animation.
+     */
+    public static final int ANIMATION_TYPE_NONE = 2;
 
-    private final View anchorView;
-    private final int gravity;
+    static final long DEFAULT_ANIMATION_DURATION = 300L;
 
-    private final PopupWindow popupWindow;
+    // the same as the default of ViewPropertyAnimator
+    static final TimeInterpolator DEFAULT_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    // only used on the main thread, and shared by all tool tip views
+    private static final ToolTipPlacement PLACEMENT = new ToolTipPlacement();
+
+    private final ToolTipHost.Popup popupHost;
     private final LinearLayout container;
     private final TextView text;
     private final ImageView arrow;
+    private final LinearLayout.LayoutParams textLayoutParams;
+    private final LinearLayout.LayoutParams arrowLayoutParams;
+    private final Rect displayFrame = new Rect();
+    private final int[] location = new int[2];
+    private final ToolTipAnimationClock.Animation animation = new ToolTipAnimationClock.Animation(
+            new ToolTipAnimationClock.Target() {
+                @Override
+                public void onAnimationFrame(float fraction, long frameTimeNanos) {
+                    onAnimationStep(fraction, frameTimeNanos);
+                }
+
+                @Override
+                public void onAnimationEnd() {
+                    stopLayer();
+                    if (exiting) {
+                        onRemoved();
+                    } else {
+                        onEnterAnimationEnd();
+                    }
+                }
+            });
+    private final View.OnAttachStateChangeListener anchorAttachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            remove(false);
+        }
+    };
+    private final PopupWindow.OnDismissListener hostDismissListener = new PopupWindow.OnDismissListener() {
+        @Override
+        public void onDismiss() {
+            if (live) {
+                live = false;
+                ToolTipMetrics.onDismissed();
+            }
+        }
+    };
+
+    @Nullable
+    private ToolTipBubbleView bubble;
+    @Nullable
+    private ToolTipHost.Overlay overlayHost;
+    private ToolTipHost host;
+
+    private View anchorView;
+    private ToolTipStyle style;
+    private int requestedGravity;
+    private int gravity;
+    private int renderMode;
+    private int windowMode;
+    private int arrowWidth;
+    private int arrowHeight;
+    private boolean trackAnchor;
+    private boolean bindToLifecycle;
+    private boolean boundToLifecycle;
+    private int animationType;
+    private long animationDuration;
+    @Nullable
+    private TimeInterpolator animationInterpolator;
+    private boolean removing;
+    private boolean removeOnClick;
+    private boolean exiting;
+    private long enterAnimationDelay;
+    private float exitStartAlpha;
+    private float exitStartScale;
+
+    // where the tool tip is placed, in the coordinates used for placement
+    private int boundsLeft;
+    private int boundsTop;
+    private int boundsRight;
+    private int boundsBottom;
+    private int placedAnchorLeft;
+    private int placedAnchorTop;
+    private int placedArrowCenter;
+
+    // where the anchor is on screen when placed, used to detect if it's moved
+    private int anchorScreenLeft;
+    private int anchorScreenTop;
+
+    @Nullable
+    private AnchorTracker anchorTracker;
+    // the observer the pre-draw listener is added to, kept to remove it if the container is
+    // detached before drawn
+    @Nullable
+    private ViewTreeObserver preDrawObserver;
+    @Nullable
+    private ToolTipScheduler.Task showTask;
+    @Nullable
+    private ToolTipScheduler.Task dismissTask;
+
+    @Nullable
+    private ToolTipViewPool pool;
+    @Nullable
+    private ToolTipManager manager;
 
     private float pivotX;
     private float pivotY;
 
     @Nullable
     private OnToolTipClickedListener listener;
+    @Nullable
+    private OnToolTipDismissedListener dismissedListener;
 
-    private ToolTipView(Context context, View anchorView, int gravity, ToolTip toolTip) {
-        this.anchorView = anchorView;
-        this.gravity = gravity;
+    @Nullable
+    private ToolTipMetricsListener metricsListener;
+    @Nullable
+    private AnimationFrameCounter frameCounter;
+    private long showStartNanos;
+    private long placementNanos;
+    private int layoutPasses;
+    private boolean live;
 
-        // TODO container should NOT capture all events
+    ToolTipView(Context context) {
+        // fills the window in WINDOW_MODE_FULL_SCREEN, so it handles the clicks outside of the bubble
         container = new LinearLayout(context);
         container.setOnClickListener(this);
 
         text = new TextView(context);
+        textLayoutParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+
+        arrow = new ImageView(context);
+        arrowLayoutParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+
+        popupHost = new ToolTipHost.Popup(container);
+        popupHost.setOnDismissListener(hostDismissListener);
+        host = popupHost;
+
+        container.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                ++layoutPasses;
+            }
+        });
+        ToolTipMetrics.onCreated();
+    }
+
+    /**
+     * Binds the tool tip view to the anchor, tool tip, and options of the given validated builder,
+     * resetting any state left from a previous use.
+     */
+    void bind(Builder builder) {
+        this.anchorView = builder.anchorView;
+        this.trackAnchor = builder.trackAnchor;
+        this.bindToLifecycle = builder.bindToLifecycle;
+        this.requestedGravity = builder.gravity;
+        this.gravity = builder.gravity == Gravity.NO_GRAVITY ? Gravity.BOTTOM : builder.gravity;
+        this.renderMode = builder.renderMode;
+        this.windowMode = builder.windowMode;
+        this.animationType = builder.animationType;
+        this.animationDuration = builder.animationDuration;
+        this.animationInterpolator = builder.animationInterpolator;
+        this.pool = builder.pool;
+        this.listener = null;
+        this.dismissedListener = null;
+        this.metricsListener = null;
+        this.removing = false;
+        this.removeOnClick = true;
+        this.enterAnimationDelay = 0L;
+
+        cancelAnimation();
+        if (frameCounter != null) {
+            frameCounter.reset();
+        }
+        container.removeAllViews();
+        container.setPadding(0, 0, 0, 0);
+        container.setAlpha(1.0F);
+        container.setScaleX(1.0F);
+        container.setScaleY(1.0F);
+        container.setTranslationX(0.0F);
+        container.setTranslationY(0.0F);
+
+        if (builder.host == HOST_OVERLAY) {
+            if (overlayHost == null) {
+                overlayHost = new ToolTipHost.Overlay(container);
+                overlayHost.setOnDismissListener(hostDismissListener);
+            }
+            host = overlayHost;
+        } else {
+            host = popupHost;
+        }
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            host.setSize(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        } else {
+            host.setSize(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+        }
+
+        applyToolTip(builder.toolTip);
+        if (renderMode == RENDER_MODE_CANVAS) {
+            container.addView(bubble, textLayoutParams);
+        } else {
+            arrange(this.gravity);
+        }
+    }
+
+    /**
+     * Applies the text and the style of the tool tip to the views, without arranging them.
+     */
+    private void applyToolTip(ToolTip toolTip) {
+        final Context context = container.getContext();
+        final CharSequence txt = TextUtils.isEmpty(toolTip.getText())
+                ? context.getString(toolTip.getTextResourceId()) : toolTip.getText();
+        style = toolTip.getStyle();
+        arrowWidth = ArrowDrawable.getArrowWidth(context, toolTip);
+        arrowHeight = ArrowDrawable.getArrowHeight(context, toolTip);
+
+        if (renderMode == RENDER_MODE_CANVAS) {
+            if (bubble == null) {
+                bubble = new ToolTipBubbleView(context);
+            }
+            bubble.bind(toolTip, txt, gravity);
+            return;
+        }
+
         text.setPadding(toolTip.getLeftPadding(), toolTip.getTopPadding(),
                 toolTip.getRightPadding(), toolTip.getBottomPadding());
         text.setGravity(toolTip.getTextGravity());
         text.setTextColor(toolTip.getTextColor());
         text.setTextSize(TypedValue.COMPLEX_UNIT_PX, toolTip.getTextSize());
-        text.setTypeface(toolTip.getTypeface(), toolTip.getTypefaceStyle());
+        // same as TextView.setTypeface(Typeface, int), with the typeface resolved once per style
+        text.getPaint().setFakeBoldText(style.isFakeBoldText());
+        text.getPaint().setTextSkewX(style.getTextSkewX());
+        text.setTypeface(style.getResolvedTypeface());
+        text.setMaxWidth(Integer.MAX_VALUE);
 
         final int lines = toolTip.getLines();
         if (lines > 0) {
             text.setLines(lines);
             text.setEllipsize(TextUtils.TruncateAt.END);
+        } else {
+            text.setMinLines(0);
+            text.setMaxLines(Integer.MAX_VALUE);
+            text.setEllipsize(null);
         }
 
-        final CharSequence txt = TextUtils.isEmpty(toolTip.getText())
-                ? context.getString(toolTip.getTextResourceId()) : toolTip.getText();
         text.setText(txt);
 
-        final int backgroundColor = toolTip.getBackgroundColor();
-        final float radius = toolTip.getCornerRadius();
-        if (radius > 0.0F) {
-            final GradientDrawable drawable = new GradientDrawable();
-            drawable.setColor(backgroundColor);
-            drawable.setGradientType(GradientDrawable.RECTANGLE);
-            drawable.setCornerRadius(radius);
+        // shares the background with all tool tips of the same style
+        //noinspection deprecation
+        text.setBackgroundDrawable(style.getBackgroundState().newDrawable(context.getResources()));
+    }
 
-            //noinspection
-            text.setBackgroundDrawable(drawable);
-        } else {
-            text.setBackgroundColor(backgroundColor);
+    /**
+     * Arranges the text and the arrow for the given gravity.
+     */
+    private void arrange(int gravity) {
+        this.gravity = gravity;
+
+        if (renderMode == RENDER_MODE_CANVAS) {
+            bubble.setGravity(gravity);
+            return;
         }
 
-        arrow = new ImageView(context);
-        arrow.setColorFilter(new PorterDuffColorFilter(backgroundColor, PorterDuff.Mode.MULTIPLY));
+        container.removeAllViews();
+        arrow.setImageDrawable(style.getArrowState(ArrowDrawable.getDirection(gravity),
+                arrowWidth, arrowHeight).newDrawable());
+        arrowLayoutParams.leftMargin = 0;
+        arrowLayoutParams.topMargin = 0;
 
-        // TODO supports Gravity.NO_GRAVITY
         switch (gravity) {
             case Gravity.LEFT:
                 container.setOrientation(LinearLayout.HORIZONTAL);
-                container.addView(text, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
-                arrow.setImageResource(R.drawable.ic_arrow_right);
-                container.addView(arrow, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+                container.addView(text, textLayoutParams);
+                container.addView(arrow, arrowLayoutParams);
                 break;
             case Gravity.RIGHT:
                 container.setOrientation(LinearLayout.HORIZONTAL);
-                arrow.setImageResource(R.drawable.ic_arrow_left);
-                container.addView(arrow, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
-                container.addView(text, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+                container.addView(arrow, arrowLayoutParams);
+                container.addView(text, textLayoutParams);
                 break;
             case Gravity.TOP:
                 container.setOrientation(LinearLayout.VERTICAL);
-                container.addView(text, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
-                arrow.setImageResource(R.drawable.ic_arrow_down);
-                container.addView(arrow, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+                container.addView(text, textLayoutParams);
+                container.addView(arrow, arrowLayoutParams);
                 break;
             case Gravity.BOTTOM:
                 container.setOrientation(LinearLayout.VERTICAL);
-                arrow.setImageResource(R.drawable.ic_arrow_up);
-                container.addView(arrow, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
-                container.addView(text, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+                container.addView(arrow, arrowLayoutParams);
+                container.addView(text, textLayoutParams);
                 break;
         }
+    }
+
+    /**
+     * Drops the references to the anchor and the listener, so that a pooled tool tip view doesn't
+     * keep them alive.
+     */
+    void unbind() {
+        cancel();
+        releaseLifecycle();
+        anchorView = null;
+        style = null;
+        listener = null;
+        dismissedListener = null;
+        metricsListener = null;
+        animationInterpolator = null;
+        pool = null;
+        manager = null;
+    }
+
+    /**
+     * Binds the tool tip view to the lifecycle of its activity, and watches its anchor being detached,
+     * if requested.
+     */
+    private void bindLifecycle(boolean watchAnchor) {
+        if (!bindToLifecycle) {
+            return;
+        }
+        if (!boundToLifecycle) {
+            boundToLifecycle = true;
+            ToolTipLifecycle.getInstance().bind(this);
+        }
+        if (watchAnchor) {
+            // removes first, in case it's already added
+            anchorView.removeOnAttachStateChangeListener(anchorAttachListener);
+            anchorView.addOnAttachStateChangeListener(anchorAttachListener);
+        }
+    }
+
+    private void releaseLifecycle() {
+        if (!boundToLifecycle) {
+            return;
+        }
+        boundToLifecycle = false;
+        ToolTipLifecycle.getInstance().unbind(this);
+        if (anchorView != null) {
+            anchorView.removeOnAttachStateChangeListener(anchorAttachListener);
+        }
+    }
+
+    /**
+     * Called when the activity of a tool tip view bound to its lifecycle is destroyed. Removes it
+     * without animation, and drops all references.
+     */
+    void onActivityDestroyed() {
+        if (host.isShowing() || removing) {
+            remove(false);
+        }
+        unbind();
+    }
+
+    /**
+     * Delays the next enter animation by the given time, counted from the frame it would start.
+     */
+    void setEnterAnimationDelay(long delayMillis) {
+        this.enterAnimationDelay = delayMillis;
+    }
+
+    /**
+     * Sets whether the tool tip view is removed when clicked, which is true by default.
+     */
+    void setRemoveOnClick(boolean removeOnClick) {
+        this.removeOnClick = removeOnClick;
+    }
+
+    View getAnchorView() {
+        return anchorView;
+    }
 
-        popupWindow = new PopupWindow(container, ViewGroup.LayoutParams.MATCH_PARENT,
-                ViewGroup.LayoutParams.MATCH_PARENT);
+    View getContentView() {
+        return container;
+    }
+
+    /**
+     * Returns true if the tool tip view is shown and not being removed.
+     */
+    boolean isShowing() {
+        return host.isShowing() && !removing;
+    }
+
+    void setManager(@Nullable ToolTipManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Captures the text to be measured off the UI thread. Must be called after the tool tip view is
+     * bound.
+     */
+    @NonNull
+    TextPrecomputation createTextPrecomputation() {
+        if (renderMode == RENDER_MODE_CANVAS) {
+            final int displayWidth = container.getResources().getDisplayMetrics().widthPixels;
+            final int maxBodyWidth = gravity == Gravity.TOP || gravity == Gravity.BOTTOM
+                    ? displayWidth : displayWidth - bubble.getArrowMeasuredWidth();
+            return bubble.createTextPrecomputation(maxBodyWidth);
+        }
+        return TextPrecomputation.forTextView(text);
     }
 
     /**
@@ -145,143 +521,748 @@ public class ToolTipView implements ViewTreeObserver.OnPreDrawListener, View.OnC
         this.listener = listener;
     }
 
+    /**
+     * Sets a listener that will be called once the tool tip view is removed.
+     */
+    public void setOnToolTipDismissedListener(@Nullable OnToolTipDismissedListener dismissedListener) {
+        this.dismissedListener = dismissedListener;
+    }
+
+    /**
+     * Changes the text of the tool tip. If it's visible, it's updated in place, and only moved if
+     * its size changes.
+     */
+    @UiThread
+    public void setText(@NonNull CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Missing text");
+        }
+        if (renderMode == RENDER_MODE_CANVAS) {
+            bubble.setText(text);
+        } else {
+            this.text.setText(text);
+        }
+        onContentChanged(false);
+    }
+
+    /**
+     * Changes the text and the style of the tool tip. If it's visible, it's updated in place, and
+     * only moved if its size changes.
+     */
+    @UiThread
+    public void update(@NonNull ToolTip toolTip) {
+        if (toolTip == null) {
+            throw new IllegalArgumentException("Missing tooltip");
+        }
+        final ToolTipStyle oldStyle = style;
+        final int oldArrowWidth = arrowWidth;
+        final int oldArrowHeight = arrowHeight;
+        applyToolTip(toolTip);
+        if (renderMode == RENDER_MODE_VIEWS && (oldStyle.getBackgroundColor() != style.getBackgroundColor()
+                || oldArrowWidth != arrowWidth || oldArrowHeight != arrowHeight)) {
+            arrange(gravity);
+        }
+        // the arrow and the maximum width are reset by the new style, so always placed again
+        onContentChanged(true);
+    }
+
+    /**
+     * Measures the visible tool tip again after its content is changed, and moves it only if its
+     * size is changed, or if forced.
+     */
+    private void onContentChanged(boolean forcePlacement) {
+        if (!host.isShowing() || removing) {
+            // measured and placed when shown
+            return;
+        }
+
+        final int oldBodyWidth = getBodyWidth();
+        final int oldBodyHeight = getBodyHeight();
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            measureInBounds();
+        } else {
+            measureBody();
+        }
+        if (!forcePlacement && oldBodyWidth == getBodyWidth() && oldBodyHeight == getBodyHeight()) {
+            return;
+        }
+
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            placeMeasured();
+            host.update(PLACEMENT.x, PLACEMENT.y, PLACEMENT.width, PLACEMENT.height);
+        } else {
+            placeInFullScreen();
+        }
+        container.setPivotX(pivotX);
+        container.setPivotY(pivotY);
+    }
+
+    /**
+     * Measures only the body, i.e. the tool tip without the arrow, in the space it's placed in.
+     */
+    private void measureBody() {
+        placeWithBodySize();
+        // negative if the anchor is at the edge of the screen, which would corrupt the measure spec
+        final int maxBodyWidth = Math.max(0, PLACEMENT.maxBodyWidth);
+        final int unspecifiedMeasureSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+        if (renderMode == RENDER_MODE_CANVAS) {
+            final int arrowSize = ToolTipPlacement.isVertical(gravity) ? 0 : bubble.getArrowMeasuredWidth();
+            // forces measuring again even if the measure spec is not changed
+            bubble.forceLayout();
+            bubble.measure(View.MeasureSpec.makeMeasureSpec(maxBodyWidth + arrowSize,
+                    View.MeasureSpec.AT_MOST), unspecifiedMeasureSpec);
+        } else {
+            text.forceLayout();
+            text.measure(View.MeasureSpec.makeMeasureSpec(maxBodyWidth, View.MeasureSpec.AT_MOST),
+                    unspecifiedMeasureSpec);
+        }
+    }
+
+    /**
+     * Sets a listener reporting metrics of this tool tip view, in addition to the one set by
+     * {@link ToolTipMetrics#setListener(ToolTipMetricsListener)}.
+     */
+    public void setMetricsListener(@Nullable ToolTipMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    private boolean hasMetricsListener() {
+        return metricsListener != null || ToolTipMetrics.getListener() != null;
+    }
+
     /**
      * Shows the tool tip.
      */
     @UiThread
     public void show() {
-        popupWindow.showAsDropDown(anchorView);
-        container.getViewTreeObserver().addOnPreDrawListener(this);
+        ToolTipScheduler.getInstance().cancel(showTask);
+
+        if (removing) {
+            // shown again before the exit animation ends
+            removing = false;
+            cancelAnimation();
+            host.dismiss();
+        }
+
+        showStartNanos = System.nanoTime();
+        layoutPasses = 0;
+        bindLifecycle(true);
+        if (requestedGravity == Gravity.NO_GRAVITY) {
+            arrange(resolveGravity());
+        }
+
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            placeAtAnchor();
+            placementNanos = System.nanoTime() - showStartNanos;
+            host.showAt(anchorView, PLACEMENT.x, PLACEMENT.y);
+            if (trackAnchor) {
+                anchorTracker = AnchorTracker.track(this);
+            }
+        } else {
+            if (!setFullScreenBoundsAndAnchor()) {
+                releaseLifecycle();
+                return;
+            }
+            // placed before the window is shown, so the first traversal is the final one
+            measureBody();
+            placeInFullScreen();
+            placementNanos = System.nanoTime() - showStartNanos;
+            host.showFullScreen(anchorView);
+            if (trackAnchor) {
+                trackAnchorOnScreen();
+            }
+        }
+        if (!live && host.isShowing()) {
+            live = true;
+            ToolTipMetrics.onShown();
+        }
+        removePreDrawListener();
+        preDrawObserver = container.getViewTreeObserver();
+        preDrawObserver.addOnPreDrawListener(this);
+    }
+
+    private void removePreDrawListener() {
+        // once attached, the listener is on the window's observer, even if added before attached
+        final ViewTreeObserver observer = container.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnPreDrawListener(this);
+        }
+        // removed before drawn, the container might be detached from the window it was added in
+        if (preDrawObserver != null && preDrawObserver != observer && preDrawObserver.isAlive()) {
+            preDrawObserver.removeOnPreDrawListener(this);
+        }
+        preDrawObserver = null;
+    }
+
+    /**
+     * Moves the tool tip to another anchor with another text and style. If it's visible, the same
+     * window is moved and resized in place, without being removed and shown again.
+     */
+    @UiThread
+    void moveTo(@NonNull View anchorView, int gravity, @NonNull ToolTip toolTip) {
+        if (anchorTracker != null) {
+            anchorTracker.untrack(this);
+            anchorTracker = null;
+        }
+        if (boundToLifecycle) {
+            this.anchorView.removeOnAttachStateChangeListener(anchorAttachListener);
+        }
+
+        this.anchorView = anchorView;
+        this.requestedGravity = gravity;
+        applyToolTip(toolTip);
+        arrange(gravity == Gravity.NO_GRAVITY ? Gravity.BOTTOM : gravity);
+
+        if (!host.isShowing() || removing) {
+            show();
+            return;
+        }
+
+        bindLifecycle(true);
+        if (requestedGravity == Gravity.NO_GRAVITY) {
+            arrange(resolveGravity());
+        }
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            placeAtAnchor();
+            host.update(PLACEMENT.x, PLACEMENT.y, PLACEMENT.width, PLACEMENT.height);
+        } else {
+            if (!setFullScreenBoundsAndAnchor()) {
+                return;
+            }
+            measureBody();
+            placeInFullScreen();
+        }
+        container.setPivotX(pivotX);
+        container.setPivotY(pivotY);
+
+        if (trackAnchor) {
+            trackAnchorOnScreen();
+        }
+    }
+
+    /**
+     * Picks the side of the anchor where the tool tip fits.
+     */
+    private int resolveGravity() {
+        setPlacementBoundsAndAnchorOnScreen();
+
+        final int maxWidthMeasureSpec = View.MeasureSpec.makeMeasureSpec(displayFrame.width(),
+                View.MeasureSpec.AT_MOST);
+        final int unspecifiedMeasureSpec = View.MeasureSpec.makeMeasureSpec(0,
+                View.MeasureSpec.UNSPECIFIED);
+        final int bodyWidth;
+        final int bodyHeight;
+        if (renderMode == RENDER_MODE_CANVAS) {
+            bubble.measure(maxWidthMeasureSpec, unspecifiedMeasureSpec);
+            bodyWidth = bubble.getBodyWidth();
+            bodyHeight = bubble.getBodyHeight();
+        } else {
+            text.measure(maxWidthMeasureSpec, unspecifiedMeasureSpec);
+            bodyWidth = text.getMeasuredWidth();
+            bodyHeight = text.getMeasuredHeight();
+        }
+        applyPlacementBoundsAndAnchor();
+        return PLACEMENT.resolveGravity(bodyWidth, bodyHeight, arrowWidth, arrowHeight);
+    }
+
+    private void setPlacementBoundsAndAnchorOnScreen() {
+        WindowGeometry.get(anchorView).getVisibleFrame(displayFrame);
+        anchorView.getLocationOnScreen(location);
+        setPlacementBoundsAndAnchor(displayFrame.left, displayFrame.top, displayFrame.right,
+                displayFrame.bottom, location[0], location[1]);
+        anchorScreenLeft = location[0];
+        anchorScreenTop = location[1];
+    }
+
+    private void setPlacementBoundsAndAnchor(int boundsLeft, int boundsTop, int boundsRight,
+                                             int boundsBottom, int anchorLeft, int anchorTop) {
+        this.boundsLeft = boundsLeft;
+        this.boundsTop = boundsTop;
+        this.boundsRight = boundsRight;
+        this.boundsBottom = boundsBottom;
+        this.placedAnchorLeft = anchorLeft;
+        this.placedAnchorTop = anchorTop;
+    }
+
+    private void applyPlacementBoundsAndAnchor() {
+        PLACEMENT.setBounds(boundsLeft, boundsTop, boundsRight, boundsBottom);
+        PLACEMENT.setAnchor(placedAnchorLeft, placedAnchorTop,
+                placedAnchorLeft + anchorView.getWidth(), placedAnchorTop + anchorView.getHeight());
+    }
+
+    /**
+     * Measures and places the tool tip, and sizes the window to it.
+     */
+    private void placeAtAnchor() {
+        setPlacementBoundsAndAnchorOnScreen();
+        measureInBounds();
+        placeMeasured();
+    }
+
+    /**
+     * Measures the tool tip in the placement bounds, for the window sized to the tool tip.
+     */
+    private void measureInBounds() {
+        final int maxWidth;
+        if (gravity == Gravity.LEFT) {
+            maxWidth = placedAnchorLeft - boundsLeft;
+        } else if (gravity == Gravity.RIGHT) {
+            maxWidth = boundsRight - placedAnchorLeft - anchorView.getWidth();
+        } else {
+            maxWidth = boundsRight - boundsLeft;
+        }
+        container.measure(View.MeasureSpec.makeMeasureSpec(Math.max(0, maxWidth), View.MeasureSpec.AT_MOST),
+                View.MeasureSpec.makeMeasureSpec(boundsBottom - boundsTop, View.MeasureSpec.AT_MOST));
     }
 
     /**
-     * Shows the tool tip with the specified delay.
+     * Places the measured tool tip, and sizes the window sized to the tool tip.
      */
+    private void placeMeasured() {
+        placeWithBodySize();
+
+        setArrowCenter(PLACEMENT.arrowCenter);
+        pivotX = PLACEMENT.pivotX;
+        pivotY = PLACEMENT.pivotY;
+
+        host.setSize(PLACEMENT.width, PLACEMENT.height);
+    }
+
+    /**
+     * Called by the anchor tracker before the anchor's window draws. Moves the tool tip if the
+     * anchor is moved, without measuring it again.
+     */
+    void onAnchorPreDraw() {
+        if (!host.isShowing()) {
+            return;
+        }
+
+        anchorView.getLocationOnScreen(location);
+        final int dx = location[0] - anchorScreenLeft;
+        final int dy = location[1] - anchorScreenTop;
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        anchorScreenLeft = location[0];
+        anchorScreenTop = location[1];
+
+        setPlacementBoundsAndAnchor(boundsLeft, boundsTop, boundsRight, boundsBottom,
+                placedAnchorLeft + dx, placedAnchorTop + dy);
+        placeWithBodySize();
+
+        if (windowMode == WINDOW_MODE_WRAP_CONTENT) {
+            host.update(PLACEMENT.x, PLACEMENT.y, -1, -1);
+            pivotX = PLACEMENT.pivotX;
+            pivotY = PLACEMENT.pivotY;
+        } else {
+            // moves the content instead of changing the padding, so no layout is needed
+            container.setTranslationX(PLACEMENT.x - container.getPaddingLeft());
+            container.setTranslationY(PLACEMENT.y - container.getPaddingTop());
+            pivotX = container.getPaddingLeft() + PLACEMENT.pivotX;
+            pivotY = container.getPaddingTop() + PLACEMENT.pivotY;
+        }
+        if (PLACEMENT.arrowCenter != placedArrowCenter) {
+            setArrowCenter(PLACEMENT.arrowCenter);
+        }
+    }
+
+    /**
+     * Places the tool tip using the measured size of the body, i.e. the tool tip without the arrow.
+     */
+    private void placeWithBodySize() {
+        applyPlacementBoundsAndAnchor();
+        PLACEMENT.place(gravity, getBodyWidth(), getBodyHeight(), arrowWidth, arrowHeight);
+    }
+
+    private int getBodyWidth() {
+        return renderMode == RENDER_MODE_CANVAS ? bubble.getBodyWidth() : text.getMeasuredWidth();
+    }
+
+    private int getBodyHeight() {
+        return renderMode == RENDER_MODE_CANVAS ? bubble.getBodyHeight() : text.getMeasuredHeight();
+    }
+
+    /**
+     * Moves the arrow so that its center is at the given position, along the edge of the text it's
+     * attached to.
+     */
+    private void setArrowCenter(int center) {
+        placedArrowCenter = center;
+        if (renderMode == RENDER_MODE_CANVAS) {
+            bubble.setArrowCenter(center);
+        } else if (gravity == Gravity.TOP || gravity == Gravity.BOTTOM) {
+            // the arrow might not be measured yet, but its base is always arrowWidth long
+            arrowLayoutParams.leftMargin = Math.max(0, Math.min(text.getMeasuredWidth() - arrowWidth, center - arrowWidth / 2));
+            arrow.setLayoutParams(arrowLayoutParams);
+        } else {
+            arrowLayoutParams.topMargin = Math.max(0, Math.min(text.getMeasuredHeight() - arrowWidth, center - arrowWidth / 2));
+            arrow.setLayoutParams(arrowLayoutParams);
+        }
+    }
+
+    /**
+     * Shows the tool tip with the specified delay. The pending show is dropped if {@link #cancel()}
+     * is called, or the activity is destroyed.
+     */
+    @UiThread
     public void showDelayed(long milliSeconds) {
-        new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-            @Override
-            public void run() {
+        if (showTask == null) {
+            showTask = new ToolTipScheduler.Task(this, ToolTipScheduler.ACTION_SHOW);
+        }
+        bindLifecycle(false);
+        ToolTipScheduler.getInstance().schedule(showTask, milliSeconds);
+    }
+
+    /**
+     * Removes the tool tip after the specified delay. The pending removal is dropped if
+     * {@link #cancel()} is called, or the activity is destroyed.
+     */
+    @UiThread
+    public void dismissAfter(long milliSeconds) {
+        if (dismissTask == null) {
+            dismissTask = new ToolTipScheduler.Task(this, ToolTipScheduler.ACTION_DISMISS);
+        }
+        ToolTipScheduler.getInstance().schedule(dismissTask, milliSeconds);
+    }
+
+    /**
+     * Cancels the pending show and removal scheduled by {@link #showDelayed(long)} and
+     * {@link #dismissAfter(long)}.
+     */
+    @UiThread
+    public void cancel() {
+        final ToolTipScheduler scheduler = ToolTipScheduler.getInstance();
+        scheduler.cancel(showTask);
+        scheduler.cancel(dismissTask);
+        if (!host.isShowing()) {
+            releaseLifecycle();
+            if (manager != null) {
+                // only set on tool tip views not shown yet when the show is delayed by the manager
+                manager.onToolTipRemoved(this);
+                manager = null;
+            }
+        }
+    }
+
+    void runScheduledAction(int action) {
+        if (action == ToolTipScheduler.ACTION_SHOW) {
+            if (manager != null) {
+                final ToolTipManager delayedBy = manager;
+                manager = null;
+                delayedBy.show(this);
+            } else {
                 show();
             }
-        }, milliSeconds);
+        } else if (host.isShowing()) {
+            remove();
+        }
+    }
+
+    Context getContext() {
+        return container.getContext();
     }
 
     /**
-     * Removes the tool tip view from the view hierarchy.
+     * Removes the tool tip view from the view hierarchy. Calling it again while the tool tip view
+     * is being removed has no effect.
      */
     @UiThread
     public void remove() {
+        remove(true);
+    }
+
+    /**
+     * Removes the tool tip view without animation.
+     */
+    void removeNow() {
+        remove(false);
+    }
+
+    private void remove(boolean animate) {
+        if (removing) {
+            if (!animate) {
+                // finishes the exit animation right away
+                cancelAnimation();
+                onRemoved();
+            }
+            return;
+        }
+        removing = true;
+
+        cancel();
+        if (manager != null) {
+            manager.onToolTipRemoved(this);
+            manager = null;
+        }
+        if (anchorTracker != null) {
+            anchorTracker.untrack(this);
+            anchorTracker = null;
+        }
+
+        // the exit animation starts from where the enter animation is cancelled, if still running
+        cancelAnimation();
+        if (!animate || !host.isShowing() || !shouldAnimate()) {
+            if (frameCounter != null) {
+                frameCounter.reset();
+            }
+            onRemoved();
+            return;
+        }
+
         container.setPivotX(pivotX);
         container.setPivotY(pivotY);
-        container.animate().setDuration(ANIMATION_DURATION).alpha(0.0F).scaleX(0.0F).scaleY(0.0F)
-                .setListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        popupWindow.dismiss();
-                    }
-                });
+        exitStartAlpha = container.getAlpha();
+        exitStartScale = container.getScaleX();
+        startAnimation(true, 0L);
+    }
+
+    private void onRemoved() {
+        if (!removing) {
+            return;
+        }
+        removing = false;
+
+        cancelAnimation();
+        removePreDrawListener();
+        host.dismiss();
+        releaseLifecycle();
+        onExitAnimationEnd();
+
+        if (dismissedListener != null) {
+            dismissedListener.onToolTipDismissed(this);
+        }
+        if (pool != null) {
+            pool.recycle(this);
+        }
     }
 
     @Override
     public boolean onPreDraw() {
-        container.getViewTreeObserver().removeOnPreDrawListener(this);
+        removePreDrawListener();
 
-        final Context context = container.getContext();
-        if (!(context instanceof Activity)) {
+        // already placed before the window is shown
+        onShown();
+        startEnterAnimation();
+        return true;
+    }
+
+    /**
+     * Sets the placement bounds to the full screen window, and the anchor relative to it.
+     */
+    private boolean setFullScreenBoundsAndAnchor() {
+        if (!host.getFullScreenFrame(anchorView, displayFrame, location)) {
             return false;
         }
-        final DisplayMetrics displayMetrics = new DisplayMetrics();
-        ((Activity) context).getWindowManager().getDefaultDisplay().getMetrics(displayMetrics);
-        final int displayWidth = displayMetrics.widthPixels;
-        final int displayHeight = displayMetrics.heightPixels;
+        setPlacementBoundsAndAnchor(displayFrame.left, displayFrame.top, displayFrame.right,
+                displayFrame.bottom, location[0], location[1]);
+        return true;
+    }
 
-        final Rect rect = new Rect();
-        anchorView.getWindowVisibleDisplayFrame(rect);
-        final int statusBarHeight = rect.top;
+    private void trackAnchorOnScreen() {
+        anchorView.getLocationOnScreen(location);
+        anchorScreenLeft = location[0];
+        anchorScreenTop = location[1];
+        anchorTracker = AnchorTracker.track(this);
+    }
 
-        final int[] location = new int[2];
-        anchorView.getLocationInWindow(location);
-        final int anchorTop = location[1] - statusBarHeight;
-        final int anchorLeft = location[0];
-        final int anchorWidth = anchorView.getWidth();
-        final int anchorHeight = anchorView.getHeight();
+    /**
+     * Places the tool tip in the full screen window, by padding the container.
+     */
+    private void placeInFullScreen() {
+        placeWithBodySize();
 
-        final int textWidth = text.getWidth();
-        final int textHeight = text.getHeight();
-        final int arrowWidth = arrow.getWidth();
-        final int arrowHeight = arrow.getHeight();
+        final int rightPadding;
+        if (gravity == Gravity.LEFT) {
+            rightPadding = boundsRight - placedAnchorLeft;
+            final int maxBodyWidth = Math.max(0, PLACEMENT.maxBodyWidth);
+            if (getBodyWidth() > maxBodyWidth) {
+                if (renderMode == RENDER_MODE_CANVAS) {
+                    bubble.setMaxBodyWidth(maxBodyWidth);
+                } else {
+                    text.setMaxWidth(maxBodyWidth);
+                }
+            }
+        } else {
+            rightPadding = 0;
+        }
+        container.setPadding(PLACEMENT.x, PLACEMENT.y, rightPadding, 0);
+        container.setTranslationX(0.0F);
+        container.setTranslationY(0.0F);
 
-        if (gravity == Gravity.TOP || gravity == Gravity.BOTTOM) {
-            final int width = Math.max(textWidth, arrowWidth);
-            final int height = textHeight + arrowHeight;
+        setArrowCenter(PLACEMENT.arrowCenter);
+        pivotX = PLACEMENT.x + PLACEMENT.pivotX;
+        pivotY = PLACEMENT.y + PLACEMENT.pivotY;
+    }
 
-            final int leftPadding;
-            final int topPadding;
+    private void onShown() {
+        if (!hasMetricsListener()) {
+            return;
+        }
+        final long showLatencyNanos = System.nanoTime() - showStartNanos;
+        final ToolTipMetricsListener globalListener = ToolTipMetrics.getListener();
+        if (globalListener != null) {
+            globalListener.onToolTipShown(this, showLatencyNanos, placementNanos);
+        }
+        if (metricsListener != null) {
+            metricsListener.onToolTipShown(this, showLatencyNanos, placementNanos);
+        }
+    }
 
-            if (gravity == Gravity.TOP) {
-                topPadding = anchorTop - height;
-            } else {
-                // gravity == Gravity.BOTTOM
-                topPadding = anchorTop + anchorHeight;
-            }
+    private void onEnterAnimationEnd() {
+        if (!hasMetricsListener()) {
+            return;
+        }
+        final int frames;
+        final int droppedFrames;
+        if (frameCounter != null) {
+            frames = frameCounter.getFrames();
+            droppedFrames = frameCounter.getDroppedFrames();
+        } else {
+            frames = 0;
+            droppedFrames = 0;
+        }
+        final ToolTipMetricsListener globalListener = ToolTipMetrics.getListener();
+        if (globalListener != null) {
+            globalListener.onEnterAnimationEnd(this, layoutPasses, frames, droppedFrames);
+        }
+        if (metricsListener != null) {
+            metricsListener.onEnterAnimationEnd(this, layoutPasses, frames, droppedFrames);
+        }
+    }
 
-            final int anchorHorizontalCenter = anchorLeft + anchorWidth / 2;
-            final int left = anchorHorizontalCenter - width / 2;
-            final int right = left + width;
-            leftPadding = Math.max(0, right > displayWidth ? displayWidth - width : left);
+    private void onExitAnimationEnd() {
+        if (!hasMetricsListener()) {
+            return;
+        }
+        final int frames;
+        final int droppedFrames;
+        if (frameCounter != null) {
+            frames = frameCounter.getFrames();
+            droppedFrames = frameCounter.getDroppedFrames();
+        } else {
+            frames = 0;
+            droppedFrames = 0;
+        }
+        final ToolTipMetricsListener globalListener = ToolTipMetrics.getListener();
+        if (globalListener != null) {
+            globalListener.onExitAnimationEnd(this, frames, droppedFrames);
+        }
+        if (metricsListener != null) {
+            metricsListener.onExitAnimationEnd(this, frames, droppedFrames);
+        }
+    }
 
-            container.setPadding(leftPadding, topPadding, 0, 0);
+    /**
+     * Starts counting frames of the animation about to start, if any metrics listener is set.
+     */
+    private void startFrameCounter() {
+        if (!hasMetricsListener()) {
+            return;
+        }
+        if (frameCounter == null) {
+            frameCounter = new AnimationFrameCounter();
+        }
+        frameCounter.start(container);
+    }
 
-            final ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) arrow.getLayoutParams();
-            layoutParams.leftMargin = anchorHorizontalCenter - leftPadding - arrowWidth / 2;
-            arrow.setLayoutParams(layoutParams);
+    private void startEnterAnimation() {
+        if (!shouldAnimate()) {
+            enterAnimationDelay = 0L;
+            container.setAlpha(1.0F);
+            container.setScaleX(1.0F);
+            container.setScaleY(1.0F);
+            if (frameCounter != null) {
+                frameCounter.reset();
+            }
+            onEnterAnimationEnd();
+            return;
+        }
 
-            pivotX = anchorHorizontalCenter;
-            pivotY = gravity == Gravity.TOP ? anchorTop : topPadding;
-        } else {
-            // gravity == Gravity.LEFT || gravity == Gravity.RIGHT
+        container.setPivotX(pivotX);
+        container.setPivotY(pivotY);
+        container.setAlpha(0.0F);
+        if (animationType == ANIMATION_TYPE_SCALE) {
+            container.setScaleX(0.0F);
+            container.setScaleY(0.0F);
+        }
+        startAnimation(false, enterAnimationDelay);
+        enterAnimationDelay = 0L;
+    }
 
-            final int width = textWidth + arrowWidth;
-            final int height = Math.max(textHeight, arrowHeight);
+    private void startAnimation(boolean exiting, long delayMillis) {
+        this.exiting = exiting;
+        startFrameCounter();
+        startLayer();
+        final long duration = (long) (animationDuration * getAnimatorDurationScale(container.getContext()));
+        ToolTipAnimationClock.getInstance().start(animation, duration, delayMillis);
+    }
 
-            final int leftPadding;
-            final int topPadding;
-            final int rightPadding;
+    private void cancelAnimation() {
+        ToolTipAnimationClock.getInstance().cancel(animation);
+        stopLayer();
+    }
 
-            if (gravity == Gravity.LEFT) {
-                leftPadding = Math.max(0, anchorLeft - width);
-                rightPadding = displayWidth - anchorLeft;
-                text.setMaxWidth(displayWidth - rightPadding - leftPadding - arrowWidth);
-            } else {
-                // gravity == Gravity.RIGHT
+    private void onAnimationStep(float fraction, long frameTimeNanos) {
+        final float value = animationInterpolator != null
+                ? animationInterpolator.getInterpolation(fraction) : DEFAULT_INTERPOLATOR.getInterpolation(fraction);
+        final float alpha = exiting ? exitStartAlpha * (1.0F - value) : value;
+        container.setAlpha(alpha);
+        if (animationType == ANIMATION_TYPE_SCALE) {
+            final float scale = exiting ? exitStartScale * (1.0F - value) : value;
+            container.setScaleX(scale);
+            container.setScaleY(scale);
+        }
+        if (frameCounter != null) {
+            frameCounter.onFrame(frameTimeNanos);
+        }
+    }
 
-                leftPadding = anchorLeft + anchorWidth;
-                rightPadding = 0;
-            }
+    private boolean shouldAnimate() {
+        return animationType != ANIMATION_TYPE_NONE && animationDuration > 0L
+                && !areAnimatorsDisabled(container.getContext());
+    }
 
-            final int anchorVerticalCenter = anchorTop + anchorHeight / 2;
-            final int top = anchorVerticalCenter - height / 2;
-            final int bottom = top + height;
-            topPadding = Math.max(0, bottom > displayHeight ? displayHeight - height : top);
+    /**
+     * Animates on a hardware layer, so that the text and background are not redrawn on every frame.
+     */
+    private void startLayer() {
+        if (container.isHardwareAccelerated()) {
+            container.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+    }
 
-            container.setPadding(leftPadding, topPadding, rightPadding, 0);
+    private void stopLayer() {
+        if (container.getLayerType() != View.LAYER_TYPE_NONE) {
+            container.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
 
-            final ViewGroup.MarginLayoutParams layoutParams = (ViewGroup.MarginLayoutParams) arrow.getLayoutParams();
-            layoutParams.topMargin = anchorVerticalCenter - topPadding - arrowHeight / 2;
-            arrow.setLayoutParams(layoutParams);
+    /**
+     * Returns true if animators are turned off by the system, e.g. the animator duration scale is
+     * set to 0 in developer options or by battery saver.
+     */
+    static boolean areAnimatorsDisabled(Context context) {
+        return getAnimatorDurationScale(context) == 0.0F;
+    }
 
-            pivotX = gravity == Gravity.LEFT ? anchorLeft : leftPadding;
-            pivotY = anchorVerticalCenter;
+    /**
+     * Returns the animator duration scale set by the system, which is 0 if animators are turned off.
+     */
+    static float getAnimatorDurationScale(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return ValueAnimator.areAnimatorsEnabled() ? ValueAnimator.getDurationScale() : 0.0F;
         }
 
-        container.setAlpha(0.0F);
-        container.setPivotX(pivotX);
-        container.setPivotY(pivotY);
-        container.setScaleX(0.0F);
-        container.setScaleY(0.0F);
-        container.animate().setDuration(ANIMATION_DURATION).alpha(1.0F).scaleX(1.0F).scaleY(1.0F);
+        final ContentResolver resolver = context.getContentResolver();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1.0F);
+        }
+        return getAnimatorDurationScaleBeforeJellyBeanMr1(resolver);
+    }
 
-        return false;
+    @SuppressWarnings("deprecation")
+    private static float getAnimatorDurationScaleBeforeJellyBeanMr1(ContentResolver resolver) {
+        return Settings.System.getFloat(resolver, Settings.System.ANIMATOR_DURATION_SCALE, 1.0F);
     }
 
     @Override
@@ -290,17 +1271,92 @@ public class ToolTipView implements ViewTreeObserver.OnPreDrawListener, View.OnC
             listener.onToolTipClicked(this);
         }
 
-        remove();
+        if (removeOnClick) {
+            remove();
+        }
+    }
+
+    /**
+     * Resolves Gravity.START and Gravity.END with the layout direction of the anchor, and checks if
+     * the gravity is supported.
+     */
+    static int resolveRelativeGravity(@NonNull View anchorView, int gravity) {
+        if (gravity == Gravity.START || gravity == Gravity.END) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+                    && anchorView.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL) {
+                gravity = gravity == Gravity.START ? Gravity.RIGHT : Gravity.LEFT;
+            } else {
+                gravity &= Gravity.HORIZONTAL_GRAVITY_MASK;
+            }
+        }
+        if (gravity != Gravity.TOP && gravity != Gravity.BOTTOM && gravity != Gravity.LEFT
+                && gravity != Gravity.RIGHT && gravity != Gravity.NO_GRAVITY) {
+            throw new IllegalArgumentException("Unsupported gravity - " + gravity);
+        }
+        return gravity;
+    }
+
+    /**
+     * Measures the text of the tool tip into {@link TextLayoutCache} for the given anchor and
+     * gravity, so that showing it later in a window sized to the tool tip with
+     * {@link #RENDER_MODE_CANVAS} skips measuring the text.
+     */
+    @UiThread
+    static void prefetch(@NonNull View anchorView, int gravity, @NonNull ToolTip toolTip) {
+        final Context context = anchorView.getContext();
+        final CharSequence txt = TextUtils.isEmpty(toolTip.getText())
+                ? context.getString(toolTip.getTextResourceId()) : toolTip.getText();
+        if (!TextLayoutCache.isCacheable(txt)) {
+            return;
+        }
+
+        final int maxBodyWidth;
+        if (gravity == Gravity.NO_GRAVITY) {
+            // the side isn't known before measured, so only the desired width is measured
+            maxBodyWidth = Integer.MAX_VALUE;
+        } else {
+            final Rect displayFrame = new Rect();
+            final int[] location = new int[2];
+            WindowGeometry.get(anchorView).getVisibleFrame(displayFrame);
+            anchorView.getLocationOnScreen(location);
+            PLACEMENT.setBounds(displayFrame.left, displayFrame.top, displayFrame.right, displayFrame.bottom);
+            PLACEMENT.setAnchor(location[0], location[1], location[0] + anchorView.getWidth(),
+                    location[1] + anchorView.getHeight());
+            PLACEMENT.place(gravity, 0, 0, ArrowDrawable.getArrowWidth(context, toolTip),
+                    ArrowDrawable.getArrowHeight(context, toolTip));
+            maxBodyWidth = PLACEMENT.maxBodyWidth;
+        }
+        TextLayoutCache.register(context);
+        ToolTipBubbleView.prefetchLayout(txt, toolTip.getStyle(), maxBodyWidth);
     }
 
     /**
      * Used to build a tool tip view.
      */
     public static class Builder {
+        /**
+         * Called on the main thread when a tool tip view built with
+         * {@link #buildAsync(Executor, Callback)} is ready to be shown.
+         */
+        public interface Callback {
+            void onToolTipViewBuilt(ToolTipView toolTipView);
+        }
+
         private final Context context;
         private View anchorView;
         private ToolTip toolTip;
         private int gravity = Gravity.BOTTOM;
+        private int renderMode = RENDER_MODE_VIEWS;
+        private int windowMode = WINDOW_MODE_FULL_SCREEN;
+        private int host = HOST_POPUP_WINDOW;
+        private boolean trackAnchor;
+        private boolean bindToLifecycle;
+        private int animationType = ANIMATION_TYPE_SCALE;
+        private long animationDuration = DEFAULT_ANIMATION_DURATION;
+        @Nullable
+        private TimeInterpolator animationInterpolator;
+        @Nullable
+        private ToolTipViewPool pool;
 
         /**
          * Creates a new builder.
@@ -329,13 +1385,98 @@ public class ToolTipView implements ViewTreeObserver.OnPreDrawListener, View.OnC
          * Sets the tool tip gravity. By default, it will be anchored to bottom of the anchor view.
          * <p/>
          * Only the following are supported: Gravity.TOP, Gravity.BOTTOM, Gravity.LEFT, Gravity.RIGHT,
-         * Gravity.START, and Gravity.END.
+         * Gravity.START, Gravity.END, and Gravity.NO_GRAVITY, which picks the side of the anchor
+         * where the tool tip fits.
          */
         public Builder withGravity(int gravity) {
             this.gravity = gravity;
             return this;
         }
 
+        /**
+         * Sets how the tool tip is rendered, either {@link #RENDER_MODE_VIEWS} (default), or
+         * {@link #RENDER_MODE_CANVAS}.
+         */
+        public Builder withRenderMode(int renderMode) {
+            this.renderMode = renderMode;
+            return this;
+        }
+
+        /**
+         * Sets how the tool tip window is sized, either {@link #WINDOW_MODE_FULL_SCREEN} (default), or
+         * {@link #WINDOW_MODE_WRAP_CONTENT}.
+         */
+        public Builder withWindowMode(int windowMode) {
+            this.windowMode = windowMode;
+            return this;
+        }
+
+        /**
+         * Sets where the tool tip window is hosted, either {@link #HOST_POPUP_WINDOW} (default), or
+         * {@link #HOST_OVERLAY}.
+         */
+        public Builder withHost(int host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets whether the tool tip should follow its anchor when the anchor is scrolled or
+         * animated. The default value is false.
+         */
+        public Builder withAnchorTracking(boolean trackAnchor) {
+            this.trackAnchor = trackAnchor;
+            return this;
+        }
+
+        /**
+         * Sets whether the tool tip view should be bound to the lifecycle of its activity. When
+         * bound, it's removed without animation and drops all references once the activity is
+         * destroyed, and removed without animation once its anchor is detached from the window. The
+         * default value is false.
+         */
+        public Builder withLifecycleBinding(boolean bindToLifecycle) {
+            this.bindToLifecycle = bindToLifecycle;
+            return this;
+        }
+
+        /**
+         * Sets how the tool tip is animated when shown and removed, either
+         * {@link #ANIMATION_TYPE_SCALE} (default), {@link #ANIMATION_TYPE_FADE}, or
+         * {@link #ANIMATION_TYPE_NONE}. Animations are skipped if animators are turned off by the
+         * system.
+         */
+        public Builder withAnimationType(int animationType) {
+            this.animationType = animationType;
+            return this;
+        }
+
+        /**
+         * Sets the duration of the animations in milliseconds. The default value is 300.
+         */
+        public Builder withAnimationDuration(long animationDuration) {
+            this.animationDuration = animationDuration;
+            return this;
+        }
+
+        /**
+         * Sets the interpolator of the animations. If not set, an accelerate decelerate interpolator
+         * is used.
+         */
+        public Builder withAnimationInterpolator(@Nullable TimeInterpolator animationInterpolator) {
+            this.animationInterpolator = animationInterpolator;
+            return this;
+        }
+
+        /**
+         * Sets the pool to obtain the tool tip view from. When set, the tool tip view is returned to
+         * the pool once it's removed, and must not be used afterwards.
+         */
+        public Builder withPool(@Nullable ToolTipViewPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
         /**
          * Creates a tool tip view.
          */
@@ -351,20 +1492,66 @@ public class ToolTipView implements ViewTreeObserver.OnPreDrawListener, View.OnC
                 throw new IllegalArgumentException("Missing tooltip");
             }
 
-            if (gravity == Gravity.START || gravity == Gravity.END) {
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
-                        && anchorView.getLayoutDirection() == View.LAYOUT_DIRECTION_RTL) {
-                    gravity = gravity == Gravity.START ? Gravity.RIGHT : Gravity.LEFT;
-                } else {
-                    gravity &= Gravity.HORIZONTAL_GRAVITY_MASK;
-                }
+            gravity = resolveRelativeGravity(anchorView, gravity);
+
+            if (renderMode != RENDER_MODE_VIEWS && renderMode != RENDER_MODE_CANVAS) {
+                throw new IllegalArgumentException("Unsupported render mode - " + renderMode);
             }
-            if (gravity != Gravity.TOP && gravity != Gravity.BOTTOM
-                    && gravity != Gravity.LEFT && gravity != Gravity.RIGHT) {
-                throw new IllegalArgumentException("Unsupported gravity - " + gravity);
+            if (windowMode != WINDOW_MODE_FULL_SCREEN && windowMode != WINDOW_MODE_WRAP_CONTENT) {
+                throw new IllegalArgumentException("Unsupported window mode - " + windowMode);
             }
+            if (host != HOST_POPUP_WINDOW && host != HOST_OVERLAY) {
+                throw new IllegalArgumentException("Unsupported host - " + host);
+            }
+            if (animationType != ANIMATION_TYPE_SCALE && animationType != ANIMATION_TYPE_FADE
+                    && animationType != ANIMATION_TYPE_NONE) {
+                throw new IllegalArgumentException("Unsupported animation type - " + animationType);
+            }
+            if (animationDuration < 0L) {
+                throw new IllegalArgumentException("Unsupported animation duration - " + animationDuration);
+            }
+
+            final ToolTipView toolTipView = pool != null ? pool.obtain() : ToolTips.obtainView(context);
+            toolTipView.bind(this);
+            return toolTipView;
+        }
 
-            return new ToolTipView(context, anchorView, gravity, toolTip);
+        /**
+         * Creates a tool tip view, with its text measured on the given executor. The callback is
+         * called on the main thread once the tool tip view is ready to be shown.
+         * <p/>
+         * On P and above, or when using {@link #RENDER_MODE_CANVAS}, the measured text is reused
+         * by the tool tip view. Otherwise, measuring the text only warms up the text layout cache.
+         */
+        @UiThread
+        public void buildAsync(@NonNull Executor executor, @NonNull final Callback callback) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Missing executor");
+            }
+            if (callback == null) {
+                throw new IllegalArgumentException("Missing callback");
+            }
+
+            final ToolTipView toolTipView = build();
+            final TextPrecomputation precomputation = toolTipView.createTextPrecomputation();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        precomputation.compute();
+                    } catch (RuntimeException e) {
+                        // falls back to measuring the text on the main thread
+                    }
+
+                    MAIN_HANDLER.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            precomputation.apply();
+                            callback.onToolTipViewBuilt(toolTipView);
+                        }
+                    });
+                }
+            });
         }
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded pool of tool tip views, used to avoid re-creating the popup window and its views every
+ * time a tool tip is shown. A pool should be created for each activity, and released when the
+ * activity is destroyed.
+ */
+@UiThread
+public class ToolTipViewPool implements ComponentCallbacks2 {
+    private static final int DEFAULT_MAX_SIZE = 4;
+
+    private final Context context;
+    private final int maxSize;
+    private final ArrayDeque<ToolTipView> pool;
+
+    private boolean released;
+
+    /**
+     * Creates a new pool that keeps at most 4 idle tool tip views.
+     */
+    public ToolTipViewPool(Context context) {
+        this(context, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new pool that keeps at most the given number of idle tool tip views.
+     */
+    public ToolTipViewPool(Context context, int maxSize) {
+        if (context == null) {
+            throw new IllegalArgumentException("Missing context");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Unsupported max size - " + maxSize);
+        }
+
+        this.context = context;
+        this.maxSize = maxSize;
+        this.pool = new ArrayDeque<>(maxSize);
+
+        context.getApplicationContext().registerComponentCallbacks(this);
+    }
+
+    /**
+     * Returns the number of idle tool tip views in the pool.
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Evicts all idle tool tip views from the pool.
+     */
+    public void clear() {
+        pool.clear();
+    }
+
+    /**
+     * Evicts all idle tool tip views, and stops the pool from keeping any more. Should be called when
+     * the activity is destroyed.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        pool.clear();
+        context.getApplicationContext().unregisterComponentCallbacks(this);
+    }
+
+    @NonNull
+    ToolTipView obtain() {
+        final ToolTipView toolTipView = pool.pollFirst();
+        if (toolTipView == null) {
+            return new ToolTipView(context);
+        }
+        ToolTipMetrics.onReused();
+        return toolTipView;
+    }
+
+    void recycle(@NonNull ToolTipView toolTipView) {
+        toolTipView.unbind();
+        if (!released && pool.size() < maxSize && !pool.contains(toolTipView)) {
+            pool.addFirst(toolTipView);
+        }
+    }
+
+    private void trimToSize(int size) {
+        while (pool.size() > size) {
+            pool.pollLast();
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(maxSize / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        clear();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+        // views inflated with the old configuration shouldn't be reused
+        clear();
+    }
+}
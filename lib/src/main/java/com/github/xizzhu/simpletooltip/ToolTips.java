@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.text.TextUtils;
+import android.view.Gravity;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Utilities for all tool tips in the process.
+ */
+@UiThread
+public final class ToolTips {
+    private static final int[] ARROW_DIRECTIONS = {Gravity.LEFT, Gravity.TOP, Gravity.RIGHT, Gravity.BOTTOM};
+
+    private static final ArrayList<ToolTip> PENDING = new ArrayList<>();
+
+    private static final MessageQueue.IdleHandler PREWARMER = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            prewarmScheduled = false;
+            if (pendingContext != null) {
+                runPrewarm(pendingContext);
+            }
+            pendingContext = null;
+            PENDING.clear();
+            return false;
+        }
+    };
+
+    @Nullable
+    private static Context pendingContext;
+    private static boolean prewarmScheduled;
+
+    // handed to the first tool tip view built for the same context
+    @Nullable
+    private static ToolTipView prewarmedView;
+
+    private ToolTips() {
+    }
+
+    /**
+     * Prepares what showing the first tool tip takes, when the main thread is idle, so that the first
+     * tool tip shows as fast as later ones. It loads the classes, resolves the typefaces and creates
+     * the backgrounds and arrows of the given tool tips, measures their texts, and creates a tool tip
+     * view handed to the first {@link ToolTipView.Builder#build()} for the same context.
+     * <p/>
+     * It should be called with the activity showing the tool tips, e.g. from onCreate(). What's
+     * prepared for an activity is dropped when it's destroyed, or when called with another context.
+     */
+    public static void prewarm(@NonNull Context context, @NonNull ToolTip... toolTips) {
+        if (context == null) {
+            throw new IllegalArgumentException("Missing context");
+        }
+        if (pendingContext != context) {
+            // only what's prepared for the latest context is kept, so earlier activities can't leak
+            PENDING.clear();
+            pendingContext = context;
+        }
+        if (prewarmedView != null && prewarmedView.getContext() != context) {
+            prewarmedView = null;
+        }
+        Collections.addAll(PENDING, toolTips);
+        if (!prewarmScheduled) {
+            prewarmScheduled = true;
+            Looper.myQueue().addIdleHandler(PREWARMER);
+        }
+    }
+
+    private static void runPrewarm(@NonNull Context context) {
+        ToolTipLifecycle.getInstance().register(context);
+        TextLayoutCache.register(context);
+
+        for (int i = 0, size = PENDING.size(); i < size; ++i) {
+            final ToolTip toolTip = PENDING.get(i);
+            if (toolTip == null) {
+                continue;
+            }
+
+            final ToolTipStyle style = toolTip.getStyle();
+            style.getResolvedTypeface();
+            style.getBackgroundState();
+            final int arrowWidth = ArrowDrawable.getArrowWidth(context, toolTip);
+            final int arrowHeight = ArrowDrawable.getArrowHeight(context, toolTip);
+            for (int direction : ARROW_DIRECTIONS) {
+                style.getArrowState(direction, arrowWidth, arrowHeight);
+            }
+
+            final CharSequence txt = TextUtils.isEmpty(toolTip.getText())
+                    ? context.getString(toolTip.getTextResourceId()) : toolTip.getText();
+            if (TextLayoutCache.isCacheable(txt)) {
+                ToolTipBubbleView.prefetchLayout(txt, style, Integer.MAX_VALUE);
+            }
+        }
+
+        if (prewarmedView == null || prewarmedView.getContext() != context) {
+            prewarmedView = new ToolTipView(context);
+        }
+    }
+
+    /**
+     * Returns the prepared tool tip view if it's for the given context, or a new one.
+     */
+    @NonNull
+    static ToolTipView obtainView(@NonNull Context context) {
+        final ToolTipView toolTipView = prewarmedView;
+        if (toolTipView != null && toolTipView.getContext() == context) {
+            prewarmedView = null;
+            return toolTipView;
+        }
+        return new ToolTipView(context);
+    }
+
+    /**
+     * Drops what's prepared for the destroyed activity.
+     */
+    static void onActivityDestroyed(@NonNull Activity activity) {
+        if (prewarmedView != null && ToolTipLifecycle.findActivity(prewarmedView.getContext()) == activity) {
+            prewarmedView = null;
+        }
+        if (pendingContext != null && ToolTipLifecycle.findActivity(pendingContext) == activity) {
+            pendingContext = null;
+            PENDING.clear();
+        }
+    }
+}
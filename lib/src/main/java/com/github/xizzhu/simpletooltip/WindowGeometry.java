@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.view.DisplayCutout;
+import android.view.View;
+import android.view.WindowInsets;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.UiThread;
+
+/**
+ * Caches the geometry of a window used to place tool tips, i.e. the size of the display and the
+ * visible frame of the window, which otherwise takes a call to the system each time. There is one
+ * instance for each window, kept as a tag of its root view.
+ * <p/>
+ * The cache is dropped when the root view is laid out with a different size or, from M, different
+ * window insets, which covers configuration changes, resizing in multi-window mode, and system bars
+ * being shown or hidden.
+ */
+@UiThread
+final class WindowGeometry implements View.OnLayoutChangeListener, View.OnAttachStateChangeListener {
+    private final View rootView;
+    private final Rect visibleFrame = new Rect();
+    private final int[] location = new int[2];
+
+    private boolean valid;
+    private int displayWidth;
+    private int displayHeight;
+    private int rootWidth;
+    private int rootHeight;
+    @Nullable
+    private WindowInsets rootInsets;
+
+    private WindowGeometry(@NonNull View rootView) {
+        this.rootView = rootView;
+    }
+
+    /**
+     * Returns the geometry of the window the given view is attached to.
+     */
+    @NonNull
+    static WindowGeometry get(@NonNull View view) {
+        final View rootView = view.getRootView();
+        WindowGeometry geometry = (WindowGeometry) rootView.getTag(R.id.simple_tool_tip_window_geometry);
+        if (geometry == null) {
+            geometry = new WindowGeometry(rootView);
+            rootView.setTag(R.id.simple_tool_tip_window_geometry, geometry);
+            rootView.addOnLayoutChangeListener(geometry);
+            rootView.addOnAttachStateChangeListener(geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * Gets the visible frame of the window on screen, excluding the system bars and, from P, display
+     * cutouts.
+     */
+    void getVisibleFrame(@NonNull Rect outFrame) {
+        update();
+        outFrame.set(visibleFrame);
+    }
+
+    /**
+     * Returns the width of the display available to the app, which is the size of the app's window
+     * in multi-window mode.
+     */
+    int getDisplayWidth() {
+        update();
+        return displayWidth;
+    }
+
+    /**
+     * Returns the height of the display available to the app, which is the size of the app's window
+     * in multi-window mode.
+     */
+    int getDisplayHeight() {
+        update();
+        return displayHeight;
+    }
+
+    private void update() {
+        if (valid) {
+            return;
+        }
+        // not cached before attached, as the window isn't known yet
+        valid = rootView.getWindowToken() != null;
+
+        // unlike WindowManager, resources are updated for the app's window in multi-window mode
+        final DisplayMetrics displayMetrics = rootView.getResources().getDisplayMetrics();
+        displayWidth = displayMetrics.widthPixels;
+        displayHeight = displayMetrics.heightPixels;
+
+        rootView.getWindowVisibleDisplayFrame(visibleFrame);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            excludeDisplayCutout();
+        }
+
+        rootWidth = rootView.getWidth();
+        rootHeight = rootView.getHeight();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            rootInsets = rootView.getRootWindowInsets();
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.P)
+    private void excludeDisplayCutout() {
+        final WindowInsets insets = rootView.getRootWindowInsets();
+        final DisplayCutout cutout = insets != null ? insets.getDisplayCutout() : null;
+        if (cutout == null) {
+            return;
+        }
+        rootView.getLocationOnScreen(location);
+        visibleFrame.intersect(location[0] + cutout.getSafeInsetLeft(),
+                location[1] + cutout.getSafeInsetTop(),
+                location[0] + rootView.getWidth() - cutout.getSafeInsetRight(),
+                location[1] + rootView.getHeight() - cutout.getSafeInsetBottom());
+    }
+
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        if (!valid) {
+            return;
+        }
+        if (right - left != rootWidth || bottom - top != rootHeight) {
+            valid = false;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            final WindowInsets insets = rootView.getRootWindowInsets();
+            if (insets == null ? rootInsets != null : !insets.equals(rootInsets)) {
+                valid = false;
+            }
+        } else {
+            // insets can't be compared, so assumes they might be changed
+            valid = false;
+        }
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        rootView.removeOnLayoutChangeListener(this);
+        rootView.removeOnAttachStateChangeListener(this);
+        rootView.setTag(R.id.simple_tool_tip_window_geometry, null);
+    }
+}
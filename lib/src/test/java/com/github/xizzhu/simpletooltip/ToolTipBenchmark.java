@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.os.Looper;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.view.Gravity;
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building tool tips, interning styles, looking up measured text, and taking tool tip
+ * views from a pool. Needs the Android classes, so it's run by {@link ToolTipBenchmarkTest} inside
+ * Robolectric, with the benchmark thread acting as the main thread.
+ * <p/>
+ * Each call into an Android class goes through Robolectric's instrumentation, which dominates the
+ * time and allocations of the cheap benchmarks, e.g. a cache lookup allocates several KB for
+ * Robolectric alone. So the results are only comparable with earlier runs, not with a device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToolTipBenchmark {
+    private static final String TEXT = "Tap here to share the photo with your friends";
+    private static final int LAYOUT_WIDTH = 480;
+
+    // more than the interned styles kept, so that each of them has been evicted when built again
+    private static final int UNIQUE_STYLES = 64;
+
+    private Thread mainThread;
+    private Context context;
+    private View anchorView;
+    private ToolTip toolTip;
+    private ToolTipStyle style;
+    private ToolTipViewPool pool;
+    private int nextStyle;
+
+    @Setup
+    public void setUp() {
+        mainThread = RuntimeEnvironment.getMainThread();
+        RuntimeEnvironment.setMainThread(Thread.currentThread());
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            // otherwise the text layout cache allocates a key for each lookup
+            throw new IllegalStateException("Benchmark thread isn't the main thread");
+        }
+
+        context = RuntimeEnvironment.application;
+        anchorView = new View(context);
+        toolTip = new ToolTip.Builder().withText(TEXT).build();
+        style = toolTip.getStyle();
+
+        pool = new ToolTipViewPool(context);
+        pool.recycle(pool.obtain());
+
+        TextLayoutCache.clear();
+        final StaticLayout layout = StaticLayout.Builder
+                .obtain(TEXT, 0, TEXT.length(), new TextPaint(), LAYOUT_WIDTH)
+                .build();
+        TextLayoutCache.putLayout(TEXT, style, LAYOUT_WIDTH, layout);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.release();
+        TextLayoutCache.clear();
+        RuntimeEnvironment.setMainThread(mainThread);
+    }
+
+    /**
+     * Builds a tool tip with the default style.
+     */
+    @Benchmark
+    public ToolTip buildToolTip() {
+        return new ToolTip.Builder().withText(TEXT).build();
+    }
+
+    /**
+     * Builds a tool tip with its own styling, which finds the interned style.
+     */
+    @Benchmark
+    public ToolTip buildStyledToolTip() {
+        return new ToolTip.Builder()
+                .withText(TEXT)
+                .withTextColor(Color.YELLOW)
+                .withBackgroundColor(Color.DKGRAY)
+                .withPadding(24, 24, 16, 16)
+                .withCornerRadius(8.0F)
+                .build();
+    }
+
+    /**
+     * Builds a style that's no longer interned, which interns it again and evicts another one.
+     */
+    @Benchmark
+    public ToolTipStyle internStyle() {
+        nextStyle = (nextStyle + 1) % UNIQUE_STYLES;
+        return new ToolTipStyle.Builder().withTextSize(12.0F + nextStyle).build();
+    }
+
+    /**
+     * Looks up the cached layout of the text on the main thread, as done before drawing a tool tip.
+     */
+    @Benchmark
+    public StaticLayout getCachedLayout() {
+        return TextLayoutCache.getLayout(TEXT, style, LAYOUT_WIDTH);
+    }
+
+    /**
+     * Looks up a layout that's not cached, e.g. of the text in another width.
+     */
+    @Benchmark
+    public StaticLayout getMissingLayout() {
+        return TextLayoutCache.getLayout(TEXT, style, LAYOUT_WIDTH + 1);
+    }
+
+    /**
+     * Takes an idle tool tip view from the pool, and puts it back.
+     */
+    @Benchmark
+    public ToolTipView obtainAndRecycle() {
+        final ToolTipView toolTipView = pool.obtain();
+        pool.recycle(toolTipView);
+        return toolTipView;
+    }
+
+    /**
+     * Creates a tool tip view, as the baseline for taking one from the pool.
+     */
+    @Benchmark
+    public ToolTipView createToolTipView() {
+        return new ToolTipView(context);
+    }
+
+    /**
+     * Builds a tool tip view with a pooled view, and puts it back without showing it.
+     */
+    @Benchmark
+    public ToolTipView buildToolTipView() {
+        final ToolTipView toolTipView = new ToolTipView.Builder(context)
+                .withAnchor(anchorView)
+                .withToolTip(toolTip)
+                .withGravity(Gravity.BOTTOM)
+                .withPool(pool)
+                .build();
+        pool.recycle(toolTipView);
+        return toolTipView;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+/**
+ * Runs {@link ToolTipBenchmark} with JMH, only when the "benchmark" project property is set, e.g.
+ * "./gradlew :lib:testDebugUnitTest --tests '*ToolTipBenchmarkTest' -Pbenchmark". The Android
+ * classes only exist inside Robolectric, so the benchmarks run in this JVM instead of a forked one.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ToolTipBenchmarkTest {
+    private static final File RESULTS = new File("build/reports/jmh/results.json");
+
+    @Test
+    public void runBenchmarks() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("simpletooltip.benchmark"));
+
+        RESULTS.getParentFile().mkdirs();
+        new Runner(new OptionsBuilder()
+                .include(ToolTipBenchmark.class.getName())
+                .forks(0)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS.getPath())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.app.Activity;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that tool tip views dropped by the manager before shown, or failed to show, are recycled
+ * to their pool.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ToolTipManagerTest {
+    private Activity activity;
+    private View firstAnchorView;
+    private View secondAnchorView;
+    private ToolTipViewPool pool;
+    private ToolTipManager manager;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        final FrameLayout content = new FrameLayout(activity);
+        firstAnchorView = new View(activity);
+        content.addView(firstAnchorView, new FrameLayout.LayoutParams(100, 100, Gravity.TOP));
+        secondAnchorView = new View(activity);
+        content.addView(secondAnchorView, new FrameLayout.LayoutParams(100, 100, Gravity.BOTTOM));
+        activity.setContentView(content);
+        ShadowLooper.runUiThreadTasks();
+
+        pool = new ToolTipViewPool(activity);
+        manager = new ToolTipManager(1);
+    }
+
+    @After
+    public void tearDown() {
+        manager.dismissAll();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        pool.release();
+    }
+
+    @Test
+    public void replacedPendingShowIsRecycled() {
+        final ToolTipView replaced = build(firstAnchorView);
+        manager.show(replaced);
+        final ToolTipView toolTipView = build(firstAnchorView);
+        manager.show(toolTipView);
+
+        assertEquals(1, pool.size());
+        assertSame(toolTipView, manager.getToolTipView(firstAnchorView));
+    }
+
+    @Test
+    public void pendingShowBeyondMaxVisibleIsRecycled() {
+        manager.show(build(firstAnchorView));
+        final ToolTipView toolTipView = build(secondAnchorView);
+        manager.show(toolTipView);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(1, pool.size());
+        assertNull(manager.getToolTipView(firstAnchorView));
+        assertSame(toolTipView, manager.getToolTipView(secondAnchorView));
+    }
+
+    @Test
+    public void dismissedPendingShowIsRecycled() {
+        final ToolTipView toolTipView = build(firstAnchorView);
+        manager.show(toolTipView);
+        manager.dismiss(toolTipView);
+
+        assertEquals(1, pool.size());
+        assertNull(manager.getToolTipView(firstAnchorView));
+    }
+
+    @Test
+    public void dismissedDelayedShowIsRecycled() {
+        final ToolTipView toolTipView = build(firstAnchorView);
+        manager.showDelayed(toolTipView, 1000L);
+        assertSame(toolTipView, manager.getToolTipView(firstAnchorView));
+
+        manager.dismiss(firstAnchorView);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(1, pool.size());
+        assertNull(manager.getToolTipView(firstAnchorView));
+    }
+
+    @Test
+    public void delayedShowIsShownByManager() {
+        final ToolTipView toolTipView = build(firstAnchorView);
+        manager.showDelayed(toolTipView, 1000L);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(0, pool.size());
+        assertSame(toolTipView, manager.getToolTipView(firstAnchorView));
+    }
+
+    @Test
+    public void showReplacesDelayedShow() {
+        manager.showDelayed(build(firstAnchorView), 1000L);
+        final ToolTipView toolTipView = build(firstAnchorView);
+        manager.show(toolTipView);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(1, pool.size());
+        assertSame(toolTipView, manager.getToolTipView(firstAnchorView));
+    }
+
+    @Test
+    public void failedShowIsNotVisible() {
+        // not in any window, so it can't be placed
+        final View detachedAnchorView = new View(activity);
+        manager.show(build(detachedAnchorView));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(1, pool.size());
+        assertNull(manager.getToolTipView(detachedAnchorView));
+    }
+
+    private ToolTipView build(View anchorView) {
+        return new ToolTipView.Builder(activity)
+                .withAnchor(anchorView)
+                .withToolTip(new ToolTip.Builder().withText("Manager").build())
+                .withHost(ToolTipView.HOST_OVERLAY)
+                .withAnimationType(ToolTipView.ANIMATION_TYPE_NONE)
+                .withPool(pool)
+                .build();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ToolTipPlacementTest {
+    private static final int BODY_WIDTH = 200;
+    private static final int BODY_HEIGHT = 100;
+    private static final int ARROW_WIDTH = 20;
+    private static final int ARROW_HEIGHT = 10;
+
+    private ToolTipPlacement placement;
+
+    @Before
+    public void setUp() {
+        placement = new ToolTipPlacement();
+        placement.setBounds(0, 0, 1000, 1000);
+        placement.setAnchor(400, 400, 600, 500);
+    }
+
+    @Test
+    public void testPlaceBottom() {
+        place(ToolTipPlacement.GRAVITY_BOTTOM);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_BOTTOM, 400, 500, 200, 110);
+        assertEquals(1000, placement.maxBodyWidth);
+        assertArrow(100, 100, 0);
+    }
+
+    @Test
+    public void testPlaceTop() {
+        place(ToolTipPlacement.GRAVITY_TOP);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_TOP, 400, 290, 200, 110);
+        assertEquals(1000, placement.maxBodyWidth);
+        assertArrow(100, 100, 110);
+    }
+
+    @Test
+    public void testPlaceRight() {
+        place(ToolTipPlacement.GRAVITY_RIGHT);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_RIGHT, 600, 400, 210, 100);
+        assertEquals(390, placement.maxBodyWidth);
+        assertArrow(50, 0, 50);
+    }
+
+    @Test
+    public void testPlaceLeft() {
+        place(ToolTipPlacement.GRAVITY_LEFT);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_LEFT, 190, 400, 210, 100);
+        assertEquals(390, placement.maxBodyWidth);
+        assertArrow(50, 210, 50);
+    }
+
+    @Test
+    public void testPlaceLeftLimitsBodyWidth() {
+        placement.setAnchor(100, 400, 200, 500);
+        place(ToolTipPlacement.GRAVITY_LEFT);
+
+        // the body should be measured again in the space left of the anchor
+        assertEquals(90, placement.maxBodyWidth);
+        assertPlacement(ToolTipPlacement.GRAVITY_LEFT, 0, 400, 210, 100);
+        assertArrow(50, 100, 50);
+    }
+
+    @Test
+    public void testPlaceClampedToLeftEdge() {
+        placement.setAnchor(0, 400, 50, 450);
+        place(ToolTipPlacement.GRAVITY_BOTTOM);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_BOTTOM, 0, 450, 200, 110);
+        assertArrow(25, 25, 0);
+    }
+
+    @Test
+    public void testPlaceClampedToRightEdge() {
+        placement.setAnchor(950, 400, 1000, 450);
+        place(ToolTipPlacement.GRAVITY_TOP);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_TOP, 800, 290, 200, 110);
+        assertArrow(175, 175, 110);
+    }
+
+    @Test
+    public void testPlaceClampedToTopEdge() {
+        placement.setAnchor(400, 0, 450, 50);
+        place(ToolTipPlacement.GRAVITY_RIGHT);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_RIGHT, 450, 0, 210, 100);
+        assertArrow(25, 0, 25);
+    }
+
+    @Test
+    public void testPlaceClampedToBottomEdge() {
+        placement.setAnchor(400, 950, 450, 1000);
+        place(ToolTipPlacement.GRAVITY_LEFT);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_LEFT, 190, 900, 210, 100);
+        assertArrow(75, 210, 75);
+    }
+
+    @Test
+    public void testPlaceWithBoundsOffset() {
+        placement.setBounds(100, 200, 1100, 1200);
+        placement.setAnchor(100, 500, 150, 550);
+        place(ToolTipPlacement.GRAVITY_BOTTOM);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_BOTTOM, 100, 550, 200, 110);
+        assertArrow(25, 25, 0);
+    }
+
+    @Test
+    public void testPlaceAutoResolvesGravity() {
+        placement.setAnchor(400, 950, 600, 1000);
+        place(ToolTipPlacement.GRAVITY_AUTO);
+
+        assertPlacement(ToolTipPlacement.GRAVITY_TOP, 400, 840, 200, 110);
+    }
+
+    @Test
+    public void testResolveGravityPrefersBottom() {
+        assertEquals(ToolTipPlacement.GRAVITY_BOTTOM, resolveGravity(BODY_WIDTH, BODY_HEIGHT));
+    }
+
+    @Test
+    public void testResolveGravityTop() {
+        placement.setAnchor(400, 950, 600, 1000);
+        assertEquals(ToolTipPlacement.GRAVITY_TOP, resolveGravity(BODY_WIDTH, BODY_HEIGHT));
+    }
+
+    @Test
+    public void testResolveGravityRight() {
+        placement.setAnchor(0, 0, 300, 1000);
+        assertEquals(ToolTipPlacement.GRAVITY_RIGHT, resolveGravity(BODY_WIDTH, BODY_HEIGHT));
+    }
+
+    @Test
+    public void testResolveGravityLeft() {
+        placement.setAnchor(700, 0, 1000, 1000);
+        assertEquals(ToolTipPlacement.GRAVITY_LEFT, resolveGravity(BODY_WIDTH, BODY_HEIGHT));
+    }
+
+    @Test
+    public void testResolveGravityFallsBackToMostSpace() {
+        placement.setAnchor(400, 100, 600, 200);
+        assertEquals(ToolTipPlacement.GRAVITY_BOTTOM, resolveGravity(2000, 2000));
+
+        placement.setAnchor(400, 800, 600, 900);
+        assertEquals(ToolTipPlacement.GRAVITY_TOP, resolveGravity(2000, 2000));
+
+        placement.setAnchor(100, 400, 200, 500);
+        assertEquals(ToolTipPlacement.GRAVITY_RIGHT, resolveGravity(2000, 2000));
+
+        placement.setAnchor(800, 400, 900, 500);
+        assertEquals(ToolTipPlacement.GRAVITY_LEFT, resolveGravity(2000, 2000));
+    }
+
+    private void place(int gravity) {
+        placement.place(gravity, BODY_WIDTH, BODY_HEIGHT, ARROW_WIDTH, ARROW_HEIGHT);
+    }
+
+    private int resolveGravity(int bodyWidth, int bodyHeight) {
+        return placement.resolveGravity(bodyWidth, bodyHeight, ARROW_WIDTH, ARROW_HEIGHT);
+    }
+
+    private void assertPlacement(int gravity, int x, int y, int width, int height) {
+        assertEquals(gravity, placement.gravity);
+        assertEquals(x, placement.x);
+        assertEquals(y, placement.y);
+        assertEquals(width, placement.width);
+        assertEquals(height, placement.height);
+    }
+
+    private void assertArrow(int arrowCenter, int pivotX, int pivotY) {
+        assertEquals(arrowCenter, placement.arrowCenter);
+        assertEquals(pivotX, placement.pivotX);
+        assertEquals(pivotY, placement.pivotY);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2019 Xizhi Zhu
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.xizzhu.simpletooltip;
+
+import android.app.Activity;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Shows and removes a pooled tool tip view for each gravity and host, and fails if a cycle exceeds
+ * its budget of layout passes, pre-draw passes, created views, or allocated bytes. Frames drawn after
+ * the tool tip is shown mustn't show it again, and following a moved anchor mustn't need any layout
+ * pass.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ToolTipViewBudgetTest {
+    // placed before the window is shown, so the first traversal is the final one
+    private static final int LAYOUT_PASS_BUDGET = 1;
+    // shown on the first pre-draw pass of its window, and never again
+    private static final int PRE_DRAW_PASSES = 1;
+
+    // generous, as Robolectric allocates on its own while traversing, but catches views or text
+    // layouts created for each show
+    private static final long ALLOCATION_BUDGET_BYTES = 256L * 1024L;
+
+    private static final int WARM_UP_CYCLES = 3;
+    private static final int MEASURED_CYCLES = 3;
+
+    // drawn after the tool tip is shown in each cycle
+    private static final int FRAMES_AFTER_SHOWN = 5;
+
+    private static final int[] GRAVITIES = {
+            Gravity.LEFT, Gravity.TOP, Gravity.RIGHT, Gravity.BOTTOM, Gravity.NO_GRAVITY};
+
+    private final RecordingMetricsListener metricsListener = new RecordingMetricsListener();
+    private final ViewTreeObserver.OnPreDrawListener preDrawCounter = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            // called before the tool tip view's listener, which is added later to the same window
+            if (metricsListener.shownCount == 0) {
+                ++preDrawsBeforeShown;
+            }
+            return true;
+        }
+    };
+
+    private Activity activity;
+    private View anchorView;
+    private ToolTip toolTip;
+    private ToolTipViewPool pool;
+    private int preDrawsBeforeShown;
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        final FrameLayout content = new FrameLayout(activity);
+        anchorView = new View(activity);
+        content.addView(anchorView, new FrameLayout.LayoutParams(100, 100, Gravity.CENTER));
+        activity.setContentView(content);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        anchorView.getViewTreeObserver().addOnPreDrawListener(preDrawCounter);
+
+        toolTip = new ToolTip.Builder().withText("Budget").build();
+        pool = new ToolTipViewPool(activity);
+        TextLayoutCache.clear();
+        ToolTipMetrics.setListener(metricsListener);
+    }
+
+    @After
+    public void tearDown() {
+        ToolTipMetrics.setListener(null);
+        pool.release();
+    }
+
+    @Test
+    public void testViewsInFullScreen() {
+        assertBudgets(ToolTipView.HOST_OVERLAY, ToolTipView.RENDER_MODE_VIEWS, ToolTipView.WINDOW_MODE_FULL_SCREEN);
+    }
+
+    @Test
+    public void testViewsInWrapContent() {
+        assertBudgets(ToolTipView.HOST_OVERLAY, ToolTipView.RENDER_MODE_VIEWS, ToolTipView.WINDOW_MODE_WRAP_CONTENT);
+    }
+
+    @Test
+    public void testCanvasInFullScreen() {
+        assertBudgets(ToolTipView.HOST_OVERLAY, ToolTipView.RENDER_MODE_CANVAS, ToolTipView.WINDOW_MODE_FULL_SCREEN);
+    }
+
+    @Test
+    public void testCanvasInWrapContent() {
+        assertBudgets(ToolTipView.HOST_OVERLAY, ToolTipView.RENDER_MODE_CANVAS, ToolTipView.WINDOW_MODE_WRAP_CONTENT);
+    }
+
+    @Test
+    public void testViewsInFullScreenPopup() {
+        assertBudgets(ToolTipView.HOST_POPUP_WINDOW, ToolTipView.RENDER_MODE_VIEWS, ToolTipView.WINDOW_MODE_FULL_SCREEN);
+    }
+
+    @Test
+    public void testViewsInWrapContentPopup() {
+        assertBudgets(ToolTipView.HOST_POPUP_WINDOW, ToolTipView.RENDER_MODE_VIEWS, ToolTipView.WINDOW_MODE_WRAP_CONTENT);
+    }
+
+    @Test
+    public void testCanvasInFullScreenPopup() {
+        assertBudgets(ToolTipView.HOST_POPUP_WINDOW, ToolTipView.RENDER_MODE_CANVAS, ToolTipView.WINDOW_MODE_FULL_SCREEN);
+    }
+
+    @Test
+    public void testCanvasInWrapContentPopup() {
+        assertBudgets(ToolTipView.HOST_POPUP_WINDOW, ToolTipView.RENDER_MODE_CANVAS, ToolTipView.WINDOW_MODE_WRAP_CONTENT);
+    }
+
+    @Test
+    public void testTrackingInWrapContent() {
+        final ToolTipView toolTipView = new ToolTipView.Builder(activity)
+                .withAnchor(anchorView)
+                .withToolTip(toolTip)
+                .withGravity(Gravity.BOTTOM)
+                .withWindowMode(ToolTipView.WINDOW_MODE_WRAP_CONTENT)
+                .withHost(ToolTipView.HOST_OVERLAY)
+                .withAnchorTracking(true)
+                .withAnimationType(ToolTipView.ANIMATION_TYPE_NONE)
+                .withPool(pool)
+                .build();
+        toolTipView.show();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        final ViewGroup layer = (ViewGroup) anchorView.getRootView().getTag(R.id.simple_tool_tip_overlay_layer);
+        final View content = layer.getChildAt(0);
+        final float y = content.getY();
+
+        // as when scrolled, the tool tip follows its anchor before each frame without a layout pass
+        anchorView.offsetTopAndBottom(40);
+        anchorView.getViewTreeObserver().dispatchOnPreDraw();
+        assertFalse("layout requested", content.isLayoutRequested());
+        assertEquals(y + 40.0F, content.getY(), 0.0F);
+
+        toolTipView.remove();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    private void assertBudgets(int host, int renderMode, int windowMode) {
+        for (int gravity : GRAVITIES) {
+            for (int i = 0; i < WARM_UP_CYCLES; ++i) {
+                runCycle(gravity, host, renderMode, windowMode);
+            }
+
+            // the least allocated, so that a one-off allocation by Robolectric or the JVM isn't counted
+            long allocatedBytes = Long.MAX_VALUE;
+            for (int i = 0; i < MEASURED_CYCLES; ++i) {
+                ToolTipMetrics.reset();
+                allocatedBytes = Math.min(allocatedBytes, runCycle(gravity, host, renderMode, windowMode));
+            }
+
+            final String message = "gravity " + gravity + ": ";
+            assertEquals(message + "shown", 1, metricsListener.shownCount);
+            assertEquals(message + "removed", 1, metricsListener.removedCount);
+            assertTrue(message + metricsListener.layoutPasses + " layout passes",
+                    metricsListener.layoutPasses <= LAYOUT_PASS_BUDGET);
+            assertEquals(message + "pre-draw passes", PRE_DRAW_PASSES, preDrawsBeforeShown);
+            assertEquals(message + "views created", 0L, ToolTipMetrics.getCreatedCount());
+            assertEquals(message + "views reused", 1L, ToolTipMetrics.getReusedCount());
+            assertTrue(message + allocatedBytes + " bytes allocated",
+                    allocatedBytes <= ALLOCATION_BUDGET_BYTES);
+        }
+    }
+
+    /**
+     * Shows a tool tip view, draws a few frames, and removes it. Returns the bytes allocated.
+     */
+    private long runCycle(int gravity, int host, int renderMode, int windowMode) {
+        metricsListener.reset();
+        preDrawsBeforeShown = 0;
+
+        final long allocatedBytes = getAllocatedBytes();
+        final ToolTipView toolTipView = new ToolTipView.Builder(activity)
+                .withAnchor(anchorView)
+                .withToolTip(toolTip)
+                .withGravity(gravity)
+                .withRenderMode(renderMode)
+                .withWindowMode(windowMode)
+                .withHost(host)
+                .withAnimationType(ToolTipView.ANIMATION_TYPE_NONE)
+                .withPool(pool)
+                .build();
+        final View content = toolTipView.getContentView();
+        if (host == ToolTipView.HOST_POPUP_WINDOW) {
+            // merged into the observer of the popup window once attached, and dropped with it
+            content.getViewTreeObserver().addOnPreDrawListener(preDrawCounter);
+        }
+
+        // as on a device, the window is traversed after show() returns, not while adding the view
+        ShadowLooper.pauseMainLooper();
+        toolTipView.show();
+        ShadowLooper.unPauseMainLooper();
+        for (int i = 0; i < FRAMES_AFTER_SHOWN; ++i) {
+            content.invalidate();
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+        toolTipView.remove();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        return getAllocatedBytes() - allocatedBytes;
+    }
+
+    private static long getAllocatedBytes() {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static class RecordingMetricsListener implements ToolTipMetricsListener {
+        int shownCount;
+        int removedCount;
+        int layoutPasses;
+
+        void reset() {
+            shownCount = 0;
+            removedCount = 0;
+            layoutPasses = 0;
+        }
+
+        @Override
+        public void onToolTipShown(ToolTipView toolTipView, long showLatencyNanos, long placementNanos) {
+            ++shownCount;
+        }
+
+        @Override
+        public void onEnterAnimationEnd(ToolTipView toolTipView, int layoutPasses, int frames, int droppedFrames) {
+            this.layoutPasses = layoutPasses;
+        }
+
+        @Override
+        public void onExitAnimationEnd(ToolTipView toolTipView, int frames, int droppedFrames) {
+            ++removedCount;
+        }
+    }
+}